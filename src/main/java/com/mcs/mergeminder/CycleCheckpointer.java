@@ -0,0 +1,124 @@
+package com.mcs.mergeminder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.mcs.mergeminder.dao.MergeMinderDb;
+import com.mcs.mergeminder.dto.MindingCheckpointModel;
+
+/**
+ * Keeps a checkpoint of the running minding cycle in the database: its id and the projects it finished.  The checkpoint
+ * is removed when the cycle completes, so one left behind means MergeMinder stopped in the middle of a cycle.  The next
+ * cycle then picks up where that one left off and skips the projects it already minded, as long as the checkpoint is
+ * recent enough for them not to be due again.
+ */
+@Component
+public class CycleCheckpointer {
+
+	private static final Logger logger = LoggerFactory.getLogger(CycleCheckpointer.class);
+
+	/* Checkpoints older than this are from too long ago to resume, their projects are minded again. */
+	static final Duration MAX_RESUME_AGE = Duration.ofMinutes(10);
+	private static final String DEFAULT_NAME = "minding";
+
+	private final MergeMinderDb mergeMinderDb;
+	private final ShardCoordinator shardCoordinator;
+
+	private MindingCheckpointModel checkpoint;
+	private final Set<String> completedRuns = new LinkedHashSet<>();
+
+	public CycleCheckpointer(MergeMinderDb mergeMinderDb, ShardCoordinator shardCoordinator) {
+		this.mergeMinderDb = mergeMinderDb;
+		this.shardCoordinator = shardCoordinator;
+	}
+
+	/**
+	 * Checks if a cycle was stopped part way recently enough to be resumed.
+	 *
+	 * @return
+	 */
+	public boolean hasResumableCycle() {
+		return isResumable(this.mergeMinderDb.getMindingCheckpoint(getName()), Instant.now());
+	}
+
+	/**
+	 * Starts a cycle, resuming the stopped one if there is a recent checkpoint.
+	 *
+	 * @return the projects, or group fetched namespaces, the resumed cycle already minded.  Empty for a new cycle.
+	 */
+	public synchronized Set<String> begin() {
+		this.completedRuns.clear();
+		MindingCheckpointModel stopped = this.mergeMinderDb.getMindingCheckpoint(getName());
+		if (isResumable(stopped, Instant.now())) {
+			this.checkpoint = stopped;
+			this.completedRuns.addAll(parseRuns(stopped.getCompletedRuns()));
+			logger.info("Resuming minding cycle {} started at {}, {} project run(s) already done.", stopped.getCycleId(), stopped.getStartedAt(),
+				this.completedRuns.size());
+		} else {
+			this.checkpoint = this.mergeMinderDb.saveMindingCheckpoint(new MindingCheckpointModel(getName(), UUID.randomUUID().toString(), new Date()));
+		}
+		return Set.copyOf(this.completedRuns);
+	}
+
+	/**
+	 * Records that the cycle finished minding a project, or a group fetched namespace.
+	 *
+	 * @param runName
+	 */
+	public synchronized void completed(String runName) {
+		if (this.checkpoint == null || !this.completedRuns.add(runName)) {
+			return;
+		}
+		this.checkpoint.setCompletedRuns(String.join("\n", this.completedRuns));
+		try {
+			this.checkpoint = this.mergeMinderDb.saveMindingCheckpoint(this.checkpoint);
+		} catch (RuntimeException e) {
+			// only costs minding the project again if this cycle is cut short.
+			logger.warn("Could not checkpoint [{}].", runName, e);
+		}
+	}
+
+	/**
+	 * Ends the cycle, removing its checkpoint.
+	 */
+	public synchronized void finish() {
+		if (this.checkpoint == null) {
+			return;
+		}
+		this.checkpoint = null;
+		this.completedRuns.clear();
+		this.mergeMinderDb.removeMindingCheckpoint(getName());
+	}
+
+	// Private Methods
+	///////////////////
+
+	/**
+	 * Each instance minding its own shards keeps its own checkpoint, under its node id.
+	 */
+	private String getName() {
+		return this.shardCoordinator.isEnabled() ? this.shardCoordinator.getNodeId() : DEFAULT_NAME;
+	}
+
+	static boolean isResumable(MindingCheckpointModel checkpoint, Instant now) {
+		return checkpoint != null && checkpoint.getStartedAt() != null && checkpoint.getStartedAt().toInstant().isAfter(now.minus(MAX_RESUME_AGE));
+	}
+
+	private static Set<String> parseRuns(String completedRuns) {
+		Set<String> runs = new LinkedHashSet<>();
+		if (StringUtils.isNotEmpty(completedRuns)) {
+			Arrays.stream(completedRuns.split("\n")).filter(StringUtils::isNotBlank).forEach(runs::add);
+		}
+		return runs;
+	}
+}
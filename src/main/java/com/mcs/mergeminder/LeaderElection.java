@@ -0,0 +1,144 @@
+package com.mcs.mergeminder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.mcs.mergeminder.dao.MergeMinderDb;
+import com.mcs.mergeminder.properties.LeaderElectionProperties;
+import com.mcs.mergeminder.properties.MergeMinderProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Elects the one MergeMinder instance that runs the scheduled jobs, with a lock row in the <tt>LeaderLocks</tt> table.
+ * The leader renews the lock every <tt>mm.leaderElection.renewSeconds</tt>, and it runs out
+ * <tt>mm.leaderElection.lockSeconds</tt> after the last renewal.  The other instances keep trying to take it, so when
+ * the leader dies one of them takes over as soon as the lock runs out.
+ * <p>
+ * An instance stops considering itself the leader as soon as its own lock time is up, even if it could not reach the
+ * database to find out, so two instances never both act as the leader.
+ */
+@Component
+public class LeaderElection {
+
+	private static final Logger logger = LoggerFactory.getLogger(LeaderElection.class);
+
+	static final String SCHEDULER_LOCK = "scheduler";
+
+	private final MergeMinderDb mergeMinderDb;
+	private final boolean enabled;
+	private final String nodeId;
+	private final Duration lockTime;
+	private final int renewSeconds;
+	private final Counter leadershipChanges;
+	private final Timer lockLatency;
+
+	private volatile Instant leaderUntil = Instant.MIN;
+	private boolean leader;
+	private ScheduledExecutorService renewExecutor;
+
+	public LeaderElection(MergeMinderDb mergeMinderDb, MergeMinderProperties mergeMinderProperties, ShardCoordinator shardCoordinator,
+		MeterRegistry meterRegistry) {
+		LeaderElectionProperties leaderElection = mergeMinderProperties.getLeaderElection();
+		this.mergeMinderDb = mergeMinderDb;
+		this.enabled = leaderElection.isEnabled();
+		// the instance goes by the same name as in the shard lease table.
+		this.nodeId = shardCoordinator.getNodeId();
+		this.lockTime = Duration.ofSeconds(leaderElection.getLockSeconds());
+		this.renewSeconds = Math.max(1, leaderElection.getRenewSeconds());
+		Gauge.builder("mergeminder.leader", this, election -> election.isLeader() ? 1 : 0)
+			.description("1 while this instance is the leader running the scheduled jobs")
+			.register(meterRegistry);
+		this.leadershipChanges = Counter.builder("mergeminder.leader.changes")
+			.description("Times this instance became or stopped being the leader")
+			.register(meterRegistry);
+		this.lockLatency = Timer.builder("mergeminder.leader.lock.latency")
+			.description("Time taken to take or renew the leader lock")
+			.register(meterRegistry);
+	}
+
+	@PostConstruct
+	public void init() {
+		if (!this.enabled) {
+			return;
+		}
+		this.mergeMinderDb.createLeaderLock(SCHEDULER_LOCK);
+		renew();
+		this.renewExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "leader-election");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.renewExecutor.scheduleWithFixedDelay(this::renew, this.renewSeconds, this.renewSeconds, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Hands the lock over right away on a clean shutdown, so another instance doesn't wait for it to run out.
+	 */
+	@PreDestroy
+	public synchronized void shutdown() {
+		if (this.renewExecutor == null) {
+			return;
+		}
+		this.renewExecutor.shutdownNow();
+		if (this.leader) {
+			try {
+				this.mergeMinderDb.releaseLeaderLock(SCHEDULER_LOCK, this.nodeId);
+			} catch (RuntimeException e) {
+				logger.warn("[{}] Could not release the leader lock, another instance takes over once it runs out.", this.nodeId, e);
+			}
+			setLeader(false, Instant.MIN);
+		}
+	}
+
+	/**
+	 * @return true if leader election is off, or this instance holds the leader lock.
+	 */
+	public boolean isLeader() {
+		return !this.enabled || Instant.now().isBefore(this.leaderUntil);
+	}
+
+	/**
+	 * Takes the leader lock if it is free or ran out, or renews it if this instance already holds it.
+	 */
+	public synchronized void renew() {
+		Instant now = Instant.now();
+		Instant expiresAt = now.plus(this.lockTime);
+		long start = System.nanoTime();
+		try {
+			boolean acquired = this.mergeMinderDb.acquireLeaderLock(SCHEDULER_LOCK, this.nodeId, Date.from(expiresAt), Date.from(now));
+			setLeader(acquired, acquired ? expiresAt : Instant.MIN);
+		} catch (RuntimeException e) {
+			// leadership lapses on its own when the lock time is up.
+			logger.error("[{}] Could not take or renew the leader lock.", this.nodeId, e);
+		} finally {
+			this.lockLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	// Private Methods
+	///////////////////
+
+	private void setLeader(boolean leader, Instant leaderUntil) {
+		this.leaderUntil = leaderUntil;
+		if (leader != this.leader) {
+			this.leader = leader;
+			this.leadershipChanges.increment();
+			logger.info("[{}] {} the leader.", this.nodeId, leader ? "Became" : "No longer");
+		}
+	}
+}
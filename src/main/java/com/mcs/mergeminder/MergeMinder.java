@@ -3,18 +3,40 @@ package com.mcs.mergeminder;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
 import org.gitlab4j.api.GitLabApiException;
 import org.gitlab4j.api.models.User;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.util.CollectionUtils;
@@ -25,10 +47,20 @@ import com.mcs.mergeminder.dto.MergeRequestModel;
 import com.mcs.mergeminder.dto.MinderProjectsModel;
 import com.mcs.mergeminder.exception.GitlabIntegrationException;
 import com.mcs.mergeminder.gitlab.GitlabIntegration;
+import com.mcs.mergeminder.gitlab.MinderProjectResolver;
 import com.mcs.mergeminder.properties.MergeMinderProperties;
 import com.mcs.mergeminder.slack.SlackIntegration;
+import com.mcs.mergeminder.util.DaemonExecutors;
+import com.mcs.mergeminder.util.PipelineStage;
+import com.mcs.mergeminder.util.SingleFlight;
 import com.mcs.mergeminder.util.TimeSchedule;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
 /**
  * MergeMinderBot!
  *
@@ -40,31 +72,139 @@ import com.mcs.mergeminder.util.TimeSchedule;
 public class MergeMinder {
 
 	private static final Logger logger = LoggerFactory.getLogger(MergeMinder.class);
+	/* Number of slowest projects named in the cycle summary. */
+	private static final int CYCLE_SUMMARY_SLOWEST = 5;
+	/* How long due reminders wait before they are tried again when they can't be sent. */
+	private static final Duration DUE_REMINDER_RETRY = Duration.ofMinutes(5);
 
 	private final TimeSchedule timeSchedule;
 	private final MergeMinderDb mergeMinderDb;
 	private final SlackIntegration slackIntegration;
 	private final GitlabIntegration gitlabIntegration;
+	private final MinderProjectResolver minderProjectResolver;
 	private final MergeMinderProperties mergeMinderProperties;
+	private final ReminderScheduler reminderScheduler;
+	private final ShardCoordinator shardCoordinator;
+	private final LeaderElection leaderElection;
+	private final ProjectPollSchedule projectPollSchedule;
+	private final CycleCheckpointer cycleCheckpointer;
+	/* The stages an MR goes through once its assignment is known. */
+	private final PipelineStage decideStage;
+	private final PipelineStage notifyStage;
+	private final PipelineStage persistStage;
+	/* Minds up to mm.projectParallelism projects (or group fetched namespaces) at the same time. */
+	private final ExecutorService projectExecutor;
+	/* Cancels project runs that take longer than mm.projectTimeoutSeconds. */
+	private final ScheduledExecutorService projectWatchdog;
+	private final Timer projectTimer;
+	private final DistributionSummary cycleUtilization;
+	private final Counter deferredRunsCounter;
+	private final DistributionSummary peakGitlabRequests;
+	/* MR assignments somewhere between the decide and persist stages, whether from a cycle, a webhook or a due reminder. */
+	private final Set<String> assignmentsInFlight = ConcurrentHashMap.newKeySet();
+	/* Project runs whose work is still going.  A run that timed out stays here until its thread really lets go of it. */
+	private final Set<String> runsInProgress = ConcurrentHashMap.newKeySet();
+	/* Project runs the last cycle did not get to before its deadline, they go first in the next cycle. */
+	private Set<String> deferredRuns = Set.of();
+	/* Keeps the scheduled run and /mind from minding at the same time.  Webhooks and due reminders mind single MRs
+	 * outside of it, the assignments in flight keep them from deciding an MR a cycle is already on. */
+	private final SingleFlight mindingFlight;
+	/* Runs the cycles triggered through /mind, so the request doesn't wait for them. */
+	private final ExecutorService triggerExecutor;
 
 	public MergeMinder(TimeSchedule timeSchedule, MergeMinderDb mergeMinderDb, SlackIntegration slackIntegration,
-		GitlabIntegration gitlabIntegration, MergeMinderProperties mergeMinderProperties) {
+		GitlabIntegration gitlabIntegration, MinderProjectResolver minderProjectResolver, MergeMinderProperties mergeMinderProperties,
+		ReminderScheduler reminderScheduler, ShardCoordinator shardCoordinator, LeaderElection leaderElection,
+		ProjectPollSchedule projectPollSchedule, CycleCheckpointer cycleCheckpointer, MeterRegistry meterRegistry) {
 		this.timeSchedule = timeSchedule;
 		this.mergeMinderDb = mergeMinderDb;
 		this.slackIntegration = slackIntegration;
 		this.gitlabIntegration = gitlabIntegration;
+		this.minderProjectResolver = minderProjectResolver;
 		this.mergeMinderProperties = mergeMinderProperties;
+		this.reminderScheduler = reminderScheduler;
+		this.shardCoordinator = shardCoordinator;
+		this.leaderElection = leaderElection;
+		this.projectPollSchedule = projectPollSchedule;
+		this.cycleCheckpointer = cycleCheckpointer;
+		this.decideStage = new PipelineStage("decide", mergeMinderProperties.getPipeline().getDecide(), meterRegistry);
+		this.notifyStage = new PipelineStage("notify", mergeMinderProperties.getPipeline().getNotify(), meterRegistry);
+		this.persistStage = new PipelineStage("persist", mergeMinderProperties.getPipeline().getPersist(), meterRegistry);
+		this.projectExecutor = ExecutorServiceMetrics.monitor(meterRegistry, DaemonExecutors.newExecutor("minding-project-", mergeMinderProperties.getProjectParallelism()),
+			"minding.project");
+		this.projectWatchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "minding-project-watchdog");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.projectTimer = Timer.builder("mergeminder.minding.project")
+			.description("Time taken to mind a project, or a namespace fetched at the group level")
+			.register(meterRegistry);
+		this.cycleUtilization = DistributionSummary.builder("mergeminder.minding.cycle.utilization")
+			.description("Share of mm.cycleDeadlineSeconds a minding cycle took, above 1 when running projects kept it past the deadline")
+			.register(meterRegistry);
+		this.deferredRunsCounter = Counter.builder("mergeminder.minding.cycle.deferred")
+			.description("Project runs not started before the cycle deadline, carried forward to the next cycle")
+			.register(meterRegistry);
+		this.peakGitlabRequests = DistributionSummary.builder("mergeminder.minding.cycle.gitlab.peak")
+			.description("Most GitLab requests in flight at once during a minding cycle")
+			.register(meterRegistry);
+		this.mindingFlight = new SingleFlight("minding", this::mindingCycle, meterRegistry);
+		// a trigger arriving while a cycle runs returns right away, only the thread running the cycle stays busy.
+		this.triggerExecutor = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "minding-trigger");
+			thread.setDaemon(true);
+			return thread;
+		});
 	}
 
 	@PostConstruct
 	public void init() {
 		logger.info("Starting MergeMinder");
+		this.reminderScheduler.start(this::mindDueReminders);
+	}
+
+	/**
+	 * Picks up where a previous run of the scheduled work stopped, once the application is fully started.  Only the
+	 * instance running the scheduled work does this, another instance may still be sending the reminders it recorded.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void resumeScheduledWork() {
+		if (!runsScheduledWork()) {
+			return;
+		}
+		int recovered = this.mergeMinderDb.recoverPendingNotifications();
+		if (recovered > 0) {
+			logger.warn("MergeMinder stopped while sending {} reminder(s).  They are recorded as sent, so they are not sent twice.", recovered);
+		}
+		if (this.cycleCheckpointer.hasResumableCycle()) {
+			// finish the cycle that was cut short instead of waiting for the next scheduled one.
+			this.triggerExecutor.execute(() -> {
+				try {
+					mindMerges();
+				} catch (RuntimeException e) {
+					logger.error("Problem resuming the minding cycle.", e);
+				}
+			});
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		this.triggerExecutor.shutdownNow();
+		this.projectWatchdog.shutdownNow();
+		this.projectExecutor.shutdownNow();
+		this.decideStage.shutdown();
+		this.notifyStage.shutdown();
+		this.persistStage.shutdown();
 	}
 
 	/**
-	 * Main application.  This task runs every 5 minutes.
+	 * Main application.  This task runs every 5 minutes by default.  Reminders of MRs it has already seen are sent by
+	 * the {@link ReminderScheduler} as they come due, so it mostly picks up new and reassigned MRs.  When GitLab
+	 * webhooks are set up those come in as they happen too, and <tt>mm.mindingCron</tt> can be set to run it less often.
 	 */
-	@Scheduled(cron = "0 0/5 * * * *")
+	@Scheduled(cron = "${mm.mindingCron:0 0/5 * * * *}")
 	public void mindMerges() {
 		logger.info("Running MergeMinder checks.");
 		logger.info("Current Eastern Time: {}", this.timeSchedule.currentEasternTime());
@@ -72,64 +212,460 @@ public class MergeMinder {
 			logger.info("Skipping checks during off hours.");
 			return;
 		}
+		if (!runsScheduledWork()) {
+			logger.info("Skipping checks, another instance is the leader.");
+			return;
+		}
 		doMinding();
 		logger.info("MergeMinder checks complete.");
 	}
 
-	public void doMinding() {
+	/**
+	 * Runs a minding cycle.  If a cycle is already running, no second cycle is started next to it: a single follow-up
+	 * cycle runs once it finishes, however many times this was called in the meantime.
+	 *
+	 * @return true if the cycle ran on this thread, false if it was folded into a follow-up of the running cycle.
+	 */
+	public boolean doMinding() {
+		return this.mindingFlight.trigger();
+	}
+
+	/**
+	 * Runs a minding cycle in the background, as {@link #doMinding()} does.
+	 *
+	 * @return true if a cycle was already running, so the trigger is folded into its follow-up cycle.
+	 */
+	public boolean triggerMinding() {
+		boolean running = this.mindingFlight.isRunning();
+		this.triggerExecutor.execute(() -> {
+			try {
+				doMinding();
+			} catch (RuntimeException e) {
+				logger.error("Problem running the triggered minding cycle.", e);
+			}
+		});
+		return running;
+	}
+
+	/**
+	 * @return the single-flight guard of the minding cycles, for its run timestamps and counts.
+	 */
+	public SingleFlight getMindingFlight() {
+		return this.mindingFlight;
+	}
+
+	private void mindingCycle() {
+		if (!this.gitlabIntegration.isAvailable() || !this.slackIntegration.isAvailable()) {
+			// reminders that are not delivered now are sent by the first cycle after both are back.
+			logger.warn("Skipping this cycle, {} is unavailable.", this.gitlabIntegration.isAvailable() ? "Slack" : "GitLab");
+			return;
+		}
 		Instant start = Instant.now();
+		// start counting the peak of concurrent GitLab requests afresh for this cycle.
+		this.gitlabIntegration.takePeakConcurrentRequests();
 
-		List<MinderProjectsModel> projectList = this.mergeMinderDb.getMinderProjects();
-		logger.info("Minding {} project(s).", projectList.size());
-		for (MinderProjectsModel project : projectList) {
-			mindOneProject(project);
+		// with sharding on, the other instances mind the rest of the projects.
+		List<MinderProjectsModel> projectList = this.mergeMinderDb.getMinderProjects().stream()
+			.filter(project -> this.shardCoordinator.isMinded(project.getFullyQualifiedProjectName()))
+			.collect(Collectors.toList());
+		this.projectPollSchedule.retain(projectList.stream().map(MinderProjectsModel::getFullyQualifiedProjectName).collect(Collectors.toList()));
+		// with adaptive polling on, idle projects are left out until their interval is up.
+		List<MinderProjectsModel> dueProjects = projectList.stream()
+			.filter(project -> this.projectPollSchedule.isDue(project.getFullyQualifiedProjectName(), start))
+			.collect(Collectors.toList());
+		logger.info("Minding {} project(s), {} not due yet.", dueProjects.size(), projectList.size() - dueProjects.size());
+		Map<String, List<MinderProjectsModel>> projectsByNamespace = dueProjects.stream()
+			.collect(Collectors.groupingBy(MinderProjectsModel::getNamespace, LinkedHashMap::new, Collectors.toList()));
+		Map<String, ProjectWork> work = new LinkedHashMap<>();
+		Map<String, List<MinderProjectsModel>> projectsByRun = new LinkedHashMap<>();
+		projectsByNamespace.forEach((namespace, projects) -> {
+			if (this.gitlabIntegration.isGroupFetchEnabled(namespace)) {
+				work.put(namespace, () -> mindNamespace(namespace, projects));
+				projectsByRun.put(namespace, projects);
+			} else {
+				projects.forEach(project -> {
+					work.put(project.getFullyQualifiedProjectName(), () -> mindOneProject(project));
+					projectsByRun.put(project.getFullyQualifiedProjectName(), List.of(project));
+				});
+			}
+		});
+		// runs deferred by the last cycle go first, so every project gets minded even when cycles keep hitting the deadline.
+		Map<String, ProjectWork> ordered = new LinkedHashMap<>();
+		this.deferredRuns.stream().filter(work::containsKey).forEach(name -> ordered.put(name, work.get(name)));
+		ordered.putAll(work);
+		// a cycle cut short by a restart is resumed, the projects it already minded are not fetched again.
+		Set<String> alreadyMinded = this.cycleCheckpointer.begin();
+		ordered.keySet().removeAll(alreadyMinded);
+		// a timed out run blocked on GitLab may still be sending reminders, the project waits until it is done.
+		Set<String> stillRunning = ordered.keySet().stream().filter(this.runsInProgress::contains).collect(Collectors.toCollection(LinkedHashSet::new));
+		if (!stillRunning.isEmpty()) {
+			logger.warn("Leaving out {} project run(s) still going after timing out in an earlier cycle: {}", stillRunning.size(), stillRunning);
+			ordered.keySet().removeAll(stillRunning);
+		}
+		List<ProjectRun> runs = new ArrayList<>();
+		long spreadMillis = TimeUnit.SECONDS.toMillis(this.mergeMinderProperties.getPollSpreadSeconds());
+		ordered.forEach((name, projectWork) -> {
+			// deferred runs are already late, they start right away.
+			long delayMillis = spreadMillis > 0 && !this.deferredRuns.contains(name) ? getPollOffsetMillis(name, spreadMillis) : 0;
+			runs.add(submitProjectRun(name, projectWork, delayMillis));
+		});
+
+		long deadlineSeconds = this.mergeMinderProperties.getCycleDeadlineSeconds();
+		long deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(deadlineSeconds);
+		Set<String> deferred = new LinkedHashSet<>();
+		for (ProjectRun run : runs) {
+			if (deadlineSeconds > 0 && !run.await(deadlineNanos) && run.defer()) {
+				// not started yet, leave it to the next cycle.  Runs already going are waited for, they are bounded by mm.projectTimeoutSeconds.
+				deferred.add(run.name);
+			} else {
+				run.await();
+			}
 		}
+		this.deferredRuns = deferred;
+		// a run that failed or timed out didn't find out whether its projects are idle, they are polled again next cycle.
+		runs.stream().filter(run -> !run.deferred && !run.failed && !run.timedOut).forEach(run -> projectsByRun.get(run.name)
+			.forEach(project -> this.projectPollSchedule.polled(project.getFullyQualifiedProjectName(), start, run.finishedAt)));
 		Instant finish = Instant.now();
 		long timeElapsed = Duration.between(start, finish).toSeconds();
 		logger.info("MergeMinding took {} second(s).", timeElapsed);
+		if (deadlineSeconds > 0) {
+			double utilization = Duration.between(start, finish).toMillis() / (double) TimeUnit.SECONDS.toMillis(deadlineSeconds);
+			this.cycleUtilization.record(utilization);
+			this.deferredRunsCounter.increment(deferred.size());
+			logger.info("Minding cycle used {}% of its {} second deadline, {} project run(s) deferred to the next cycle.", Math.round(utilization * 100),
+				deadlineSeconds, deferred.size());
+		}
+		int peakGitlabRequests = this.gitlabIntegration.takePeakConcurrentRequests();
+		this.peakGitlabRequests.record(peakGitlabRequests);
+		logger.info("At most {} GitLab request(s) were in flight at once during the cycle.", peakGitlabRequests);
+		logCycleSummary(runs);
+		this.cycleCheckpointer.finish();
+		this.gitlabIntegration.logUserCacheStatistics();
+	}
+
+	/**
+	 * Starts minding a project, or a group fetched namespace, on the project executor.  If it has not finished
+	 * <tt>mm.projectTimeoutSeconds</tt> after it started, it is interrupted so it doesn't hold up the rest of the cycle.
+	 * A run blocked on I/O may not notice the interrupt, so it counts as in progress, and later cycles leave its project
+	 * out, until its work actually returns.
+	 *
+	 * @param name project or namespace, for the cycle summary
+	 * @param work
+	 * @param delayMillis how long after the cycle start the run is handed to the project executor
+	 * @return the run, to wait for
+	 */
+	private ProjectRun submitProjectRun(String name, ProjectWork work, long delayMillis) {
+		ProjectRun run = new ProjectRun(name);
+		long timeoutSeconds = this.mergeMinderProperties.getProjectTimeoutSeconds();
+		run.task = new FutureTask<>(() -> {
+			if (!run.claimed.compareAndSet(false, true)) {
+				// deferred to the next cycle before it got to start.
+				return null;
+			}
+			run.startNanos = System.nanoTime();
+			this.runsInProgress.add(name);
+			ScheduledFuture<?> timeout = timeoutSeconds > 0 ? this.projectWatchdog.schedule(() -> {
+				run.timedOut = true;
+				run.task.cancel(true);
+			}, timeoutSeconds, TimeUnit.SECONDS) : null;
+			try {
+				work.run();
+				if (!run.timedOut) {
+					this.cycleCheckpointer.completed(name);
+				}
+			} finally {
+				this.runsInProgress.remove(name);
+				if (timeout != null) {
+					timeout.cancel(false);
+				}
+				run.endNanos = System.nanoTime();
+				run.finishedAt = Instant.now();
+				this.projectTimer.record(run.endNanos - run.startNanos, TimeUnit.NANOSECONDS);
+			}
+			return null;
+		});
+		if (delayMillis > 0) {
+			this.projectWatchdog.schedule(() -> this.projectExecutor.execute(run.task), delayMillis, TimeUnit.MILLISECONDS);
+		} else {
+			this.projectExecutor.execute(run.task);
+		}
+		return run;
+	}
+
+	/**
+	 * Gets a project run's offset into the poll spread window.  Hashed from its name, so a project is polled at the
+	 * same point of every cycle and the projects spread evenly over the window.
+	 *
+	 * @param name project or namespace
+	 * @param spreadMillis
+	 * @return
+	 */
+	static long getPollOffsetMillis(String name, long spreadMillis) {
+		// mix the bits, so projects with similar names don't end up next to each other.
+		long hash = name.hashCode() * 0x9E3779B97F4A7C15L;
+		return Math.floorMod(hash ^ (hash >>> 32), spreadMillis);
+	}
+
+	/**
+	 * Logs how long each project took, slowest first, and which ones timed out or failed.
+	 *
+	 * @param runs
+	 */
+	private void logCycleSummary(List<ProjectRun> runs) {
+		List<ProjectRun> slowestFirst = new ArrayList<>(runs);
+		slowestFirst.sort(Comparator.comparingLong(ProjectRun::getDurationMillis).reversed());
+		long timedOut = runs.stream().filter(run -> run.timedOut).count();
+		long failed = runs.stream().filter(run -> run.failed).count();
+		long deferred = runs.stream().filter(run -> run.deferred).count();
+		logger.info("Minding cycle summary: {} project run(s), {} timed out, {} failed, {} deferred.  Slowest: {}", runs.size(), timedOut, failed, deferred,
+			slowestFirst.stream().limit(CYCLE_SUMMARY_SLOWEST).map(ProjectRun::toString).collect(Collectors.joining(", ")));
+		if (logger.isDebugEnabled()) {
+			slowestFirst.forEach(run -> logger.debug("   {}", run));
+		}
+	}
+
+	/**
+	 * Minds every project in a namespace from a single group level MR listing.  Falls back to minding the projects one
+	 * at a time if the group listing fails.
+	 *
+	 * @param namespace
+	 * @param projects minded projects in the namespace
+	 * @throws GitLabApiException if any of the projects minded one at a time failed, after the others were minded.
+	 */
+	public void mindNamespace(String namespace, List<MinderProjectsModel> projects) throws GitLabApiException {
+		Map<Long, MinderProjectsModel> projectsById = new LinkedHashMap<>();
+		List<MinderProjectsModel> unresolvedProjects = new ArrayList<>();
+		for (MinderProjectsModel project : projects) {
+			if (!isStillMinded(project)) {
+				continue;
+			}
+			try {
+				projectsById.put(this.minderProjectResolver.getProjectId(project), project);
+			} catch (GitLabApiException e) {
+				logger.warn("[{}] Could not resolve the GitLab project id.  Will mind it on its own.", project.getFullyQualifiedProjectName());
+				unresolvedProjects.add(project);
+			}
+		}
+		try {
+			Map<Long, List<MergeRequestAssignmentInfo>> assignmentInfoByProject = this.gitlabIntegration.getMergeRequestInfoForGroup(namespace, projectsById);
+			projectsById.forEach((projectId, project) -> {
+				this.minderProjectResolver.updateProjectPath(project, assignmentInfoByProject.get(projectId));
+				mindAssignments(project, assignmentInfoByProject.get(projectId));
+			});
+		} catch (GitLabApiException e) {
+			logger.error("Problem fetching MRs for group [{}].  Minding its projects one at a time.", namespace, e);
+			unresolvedProjects.addAll(projectsById.values());
+		}
+		GitLabApiException failure = null;
+		for (MinderProjectsModel project : unresolvedProjects) {
+			try {
+				mindOneProject(project);
+			} catch (GitLabApiException e) {
+				logger.error("[{}] Problem with GitLab integration.", project.getFullyQualifiedProjectName(), e);
+				if (failure == null) {
+					failure = e;
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
 	}
 
-	public void mindOneProject(MinderProjectsModel minderProject) {
+	/**
+	 * Fetches a project's open MRs and minds their assignments.
+	 *
+	 * @param minderProject
+	 * @throws GitLabApiException if the MRs could not be fetched.  The run is reported as failed.
+	 */
+	public void mindOneProject(MinderProjectsModel minderProject) throws GitLabApiException {
+		if (!isStillMinded(minderProject)) {
+			return;
+		}
+		mindAssignments(minderProject, getMergeRequestInfo(minderProject));
+	}
+
+	/**
+	 * Checks each MR assignment of the project and sends any reminders that are due.
+	 *
+	 * @param minderProject
+	 * @param assignmentInfoList
+	 */
+	public void mindAssignments(MinderProjectsModel minderProject, Collection<MergeRequestAssignmentInfo> assignmentInfoList) {
+		if (!assignmentInfoList.isEmpty()) {
+			this.projectPollSchedule.markActive(minderProject.getFullyQualifiedProjectName());
+		}
+		if (assignmentInfoList.isEmpty()) {
+			logger.info("Minding project [{}/{}].  No open MRs to check.", minderProject.getNamespace(), minderProject.getProject());
+			return;
+		}
+		logger.info("Minding project [{}/{}].  Total of {} MRs to check.  Will process them in parallel.", minderProject.getNamespace(), minderProject.getProject(), assignmentInfoList.size());
+		// Feed the MRs in the project through the decide, notify and persist stages.  Feeding waits while the decide stage is full.
+		MindingBatch batch = new MindingBatch(minderProject, assignmentInfoList.size(), this.assignmentsInFlight);
 		try {
-			Collection<MergeRequestAssignmentInfo> assignmentInfoList = this.gitlabIntegration.getMergeRequestInfoForProject(minderProject.getNamespace(),
-				minderProject.getProject());
-			if (assignmentInfoList.isEmpty()) {
-				logger.info("Minding project [{}/{}].  No open MRs to check.", minderProject.getNamespace(), minderProject.getProject());
+			for (MergeRequestAssignmentInfo mrInfo : assignmentInfoList) {
+				this.decideStage.submit(() -> batch.stage(mrInfo, () -> decide(minderProject, mrInfo, batch)));
+			}
+			batch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			logger.warn("Interrupted while minding project [{}/{}].", minderProject.getNamespace(), minderProject.getProject());
+		}
+		logger.info("Minding project [{}/{}] complete.  Total of {} MRs checked.", minderProject.getNamespace(), minderProject.getProject(), batch.getChecked());
+	}
+
+	/**
+	 * Decide stage: works out which reminder is due for an MR assignment and hands it to the notify stage, or straight
+	 * to the persist stage if the reminder was already sent.
+	 */
+	private void decide(MinderProjectsModel minderProject, MergeRequestAssignmentInfo mrInfo, MindingBatch batch) throws InterruptedException {
+		if (!batch.claim(mrInfo)) {
+			// a cycle, webhook or due reminder is already on it.  Deciding it again before it is recorded could send the reminder twice.
+			logger.debug("   [{}/{}] MR!{}: Already being minded.", minderProject.getNamespace(), minderProject.getProject(), mrInfo.getMr().getIid());
+			batch.skipped(mrInfo);
+			return;
+		}
+		long hoursSinceLastAssignment = getHoursSinceAssignment(mrInfo.getAssignedAt());
+		logger
+			.info("   [{}/{}] MR!{} has been assigned to {} ({}) for {} hours.", minderProject.getNamespace(), minderProject.getProject(),
+				mrInfo.getMr().getIid(), mrInfo.getAssignee().getUsername(),
+				mrInfo.getAssignee().getName(), hoursSinceLastAssignment);
+		ReminderLength reminderLength = ReminderLength.getLastReminderPeriod(hoursSinceLastAssignment);
+		long lastReminderAt = this.mergeMinderDb.getLastReminderSent(mrInfo);
+		if (lastReminderAt >= reminderLength.getHours()) {
+			logger.debug("   [{}/{}] MR!{}: Already sent the most current reminder ({}).", minderProject.getNamespace(), minderProject.getProject(),
+				mrInfo.getMr().getIid(), reminderLength);
+			this.persistStage.submit(() -> batch.stage(mrInfo, () -> persist(mrInfo, hoursSinceLastAssignment, false, batch)));
+		} else {
+			this.notifyStage.submit(() -> batch.stage(mrInfo, () -> {
+				if (!isStillMinded(minderProject)) {
+					batch.skipped(mrInfo);
+					return;
+				}
+				// if MergeMinder stops before the MR is recorded, the pending reminder keeps it from being sent twice.
+				this.mergeMinderDb.recordPendingNotification(mrInfo, hoursSinceLastAssignment);
+				boolean delivered;
+				try {
+					delivered = this.slackIntegration.notifyMergeRequest(mrInfo, reminderLength, getEmail(mrInfo.getAssignee()));
+				} catch (RuntimeException e) {
+					this.mergeMinderDb.removePendingNotification(mrInfo);
+					throw e;
+				}
+				if (!delivered) {
+					// not recorded as sent, so the next cycle or a retry of its due reminder sends it again.
+					logger.warn("   [{}/{}] MR!{}: Reminder ({}) not delivered to Slack, retrying later.", minderProject.getNamespace(),
+						minderProject.getProject(), mrInfo.getMr().getIid(), reminderLength);
+					this.mergeMinderDb.removePendingNotification(mrInfo);
+					retryDueReminder(mrInfo);
+					batch.skipped(mrInfo);
+					return;
+				}
+				this.persistStage.submit(() -> batch.stage(mrInfo, () -> persist(mrInfo, hoursSinceLastAssignment, true, batch)));
+			}));
+		}
+	}
+
+	/**
+	 * Queues another try of a reminder that could not be delivered, for MRs that were recorded before.  New MRs are
+	 * picked up again by the next cycle.
+	 */
+	private void retryDueReminder(MergeRequestAssignmentInfo mrInfo) {
+		MergeRequestModel model = this.mergeMinderDb.getMergeRequestModel(mrInfo.getMr().getId());
+		if (model != null) {
+			this.reminderScheduler.schedule(model, Instant.now().plus(DUE_REMINDER_RETRY));
+		}
+	}
+
+	/**
+	 * Persist stage: records the MR assignment and the reminder sent for it.  The last stage an MR goes through.
+	 */
+	private void persist(MergeRequestAssignmentInfo mrInfo, long hoursSinceLastAssignment, boolean notified, MindingBatch batch) {
+		this.reminderScheduler.schedule(this.mergeMinderDb.recordMergeRequest(mrInfo, hoursSinceLastAssignment));
+		if (notified) {
+			this.mergeMinderDb.removePendingNotification(mrInfo);
+		}
+		batch.checked(mrInfo);
+	}
+
+	/**
+	 * Minds the MRs whose next reminder came due, looking each one up again so reminders are only sent for MRs that are
+	 * still open and assigned.  Outside of alert hours, or while GitLab or Slack is unavailable, they are retried
+	 * later.
+	 *
+	 * @param dueMergeRequests
+	 */
+	void mindDueReminders(List<MergeRequestModel> dueMergeRequests) {
+		if (!runsScheduledWork()) {
+			// the leader has them queued too.  They are rescheduled here when this instance minds their projects again.
+			return;
+		}
+		if ((!this.mergeMinderProperties.getScheduleBypass() && !this.timeSchedule.shouldAlertNow())
+			|| !this.gitlabIntegration.isAvailable() || !this.slackIntegration.isAvailable()) {
+			Instant retryAt = Instant.now().plus(DUE_REMINDER_RETRY);
+			dueMergeRequests.forEach(merge -> this.reminderScheduler.schedule(merge, retryAt));
+			return;
+		}
+		Map<String, List<MergeRequestModel>> dueByProject = dueMergeRequests.stream()
+			.filter(merge -> merge.getProject() != null && merge.getMrId() != null)
+			// due reminders of other instances' projects are theirs to send, they are rescheduled when the project is minded here again.
+			.filter(merge -> this.shardCoordinator.isMinded(merge.getProject()))
+			.collect(Collectors.groupingBy(MergeRequestModel::getProject, LinkedHashMap::new, Collectors.toList()));
+		dueByProject.forEach((projectName, merges) -> {
+			MinderProjectsModel minderProject = this.mergeMinderDb.getMinderProject(null, projectName);
+			if (minderProject == null) {
+				logger.debug("[{}] No longer minded, dropping {} due reminder(s).", projectName, merges.size());
 				return;
 			}
-			logger.info("Minding project [{}/{}].  Total of {} MRs to check.  Will process them in parallel.", minderProject.getNamespace(), minderProject.getProject(), assignmentInfoList.size());
-			// 			for (MergeRequestAssignmentInfo mrInfo : assignmentInfoList) {
-			AtomicInteger mrCheckCount = new AtomicInteger();
-			// Split up the MRs in the project into a parallel stream and process them at the same time.
-			assignmentInfoList.parallelStream().forEach((mrInfo) -> {
-				if (mrInfo.getMr().getWorkInProgress()) {
-					logger
-						.info("   [{}/{}] MR!{} assigned to {} is a WIP.  Ignoring.", minderProject.getNamespace(), minderProject.getProject(),
-							mrInfo.getMr().getIid(), mrInfo.getAssignee().getUsername(),
-							mrInfo.getAssignee().getName());
-					mrCheckCount.getAndIncrement();
-				} else {
-					long hoursSinceLastAssignment = getHoursSinceAssignment(mrInfo.getAssignedAt());
-					logger
-						.info("   [{}/{}] MR!{} has been assigned to {} ({}) for {} hours.", minderProject.getNamespace(), minderProject.getProject(),
-							mrInfo.getMr().getIid(), mrInfo.getAssignee().getUsername(),
-							mrInfo.getAssignee().getName(), hoursSinceLastAssignment);
-					ReminderLength reminderLength = ReminderLength.getLastReminderPeriod(hoursSinceLastAssignment);
-					long lastReminderAt = this.mergeMinderDb.getLastReminderSent(mrInfo.getMr().getId(), mrInfo.getLastAssignmentId());
-					if (lastReminderAt >= reminderLength.getHours()) {
-						logger.debug("   [{}/{}] MR!{}: Already sent the most current reminder ({}).", minderProject.getNamespace(), minderProject.getProject(),
-							mrInfo.getMr().getIid(), reminderLength);
-					} else {
-						this.slackIntegration.notifyMergeRequest(mrInfo, reminderLength, getEmail(mrInfo.getAssignee()));
-					}
-					this.mergeMinderDb.recordMergeRequest(mrInfo, hoursSinceLastAssignment);
-					mrCheckCount.getAndIncrement();
+			Instant retryAt = Instant.now().plus(DUE_REMINDER_RETRY);
+			Long projectId;
+			try {
+				projectId = this.minderProjectResolver.getProjectId(minderProject);
+			} catch (GitLabApiException e) {
+				logger.error("Problem with GitLab integration.  Due reminders of [{}] are retried in {} minute(s).", projectName,
+					DUE_REMINDER_RETRY.toMinutes(), e);
+				merges.forEach(merge -> this.reminderScheduler.schedule(merge, retryAt));
+				return;
+			}
+			List<MergeRequestAssignmentInfo> assignmentInfoList = new ArrayList<>();
+			for (MergeRequestModel merge : merges) {
+				try {
+					assignmentInfoList.addAll(this.gitlabIntegration.getMergeRequestInfo(projectId, merge.getMrId(), minderProject.getNamespace(),
+						minderProject.getProject()));
+				} catch (GitLabApiException | RuntimeException e) {
+					// one MR failing, ie. deleted since it was recorded, doesn't hold up the others.
+					logger.error("[{}] Problem looking up MR!{}.  Its due reminder is retried in {} minute(s).", projectName, merge.getMrId(),
+						DUE_REMINDER_RETRY.toMinutes(), e);
+					this.reminderScheduler.schedule(merge, retryAt);
 				}
-			});
-			logger.info("Minding project [{}/{}] complete.  Total of {} MRs checked.", minderProject.getNamespace(), minderProject.getProject(), mrCheckCount.get());
+			}
+			// MRs that were merged, closed or unassigned are not rescheduled, MergePurge removes them.
+			mindAssignments(minderProject, assignmentInfoList);
+		});
+	}
+
+	/**
+	 * Fetches the open MRs of a minded project by its stored GitLab project id.  If GitLab no longer knows that id, the
+	 * project is looked up again by its path before giving up.
+	 *
+	 * @param minderProject
+	 * @return
+	 * @throws GitLabApiException
+	 */
+	private Collection<MergeRequestAssignmentInfo> getMergeRequestInfo(MinderProjectsModel minderProject) throws GitLabApiException {
+		Long projectId = this.minderProjectResolver.getProjectId(minderProject);
+		Collection<MergeRequestAssignmentInfo> assignmentInfoList;
+		try {
+			assignmentInfoList = this.gitlabIntegration.getMergeRequestInfoForProject(projectId, minderProject.getNamespace(), minderProject.getProject());
 		} catch (GitLabApiException e) {
-			logger.error("Problem with GitLab integration.", e);
+			if (e.getHttpStatus() != 404) {
+				throw e;
+			}
+			logger.info("[{}] GitLab does not recognize project id {}.  Looking it up again.", minderProject.getFullyQualifiedProjectName(), projectId);
+			projectId = this.minderProjectResolver.resolveProjectId(minderProject);
+			assignmentInfoList = this.gitlabIntegration.getMergeRequestInfoForProject(projectId, minderProject.getNamespace(), minderProject.getProject());
 		}
+		this.minderProjectResolver.updateProjectPath(minderProject, assignmentInfoList);
+		return assignmentInfoList;
 	}
 
 	/**
@@ -137,27 +673,41 @@ public class MergeMinder {
 	 */
 	@Scheduled(cron = "0 0 * * * *")
 	public void mergePurge() {
-		if (!this.mergeMinderProperties.getScheduleBypass() && this.timeSchedule.shouldPurgeNow()) {
+		if (!this.mergeMinderProperties.getScheduleBypass() && this.timeSchedule.shouldPurgeNow() && runsScheduledWork()) {
 			doPurge();
 		}
 	}
 
+	/**
+	 * Removes the MRs that were not updated for two days and are merged or closed.  The candidates are grouped by
+	 * project so each project's MRs are checked with a few listings instead of a request per MR.
+	 */
 	public void doPurge() {
 		logger.info("Running MergePurge.");
-		int purgeCount = 0;
-		List<MergeRequestModel> merges = this.mergeMinderDb.getAllMergeRequestModels();
-		for (MergeRequestModel merge : merges) {
+		Date staleBefore = Date.from(Instant.now().minus(2, ChronoUnit.DAYS));
+		Map<String, Map<Long, MergeRequestModel>> candidatesByProject = new LinkedHashMap<>();
+		this.mergeMinderDb.forEachMergeRequestModelUpdatedBefore(staleBefore, merge -> {
+			if (merge.getProject() != null && merge.getMrId() != null && this.shardCoordinator.isMinded(merge.getProject())) {
+				candidatesByProject.computeIfAbsent(merge.getProject(), project -> new LinkedHashMap<>()).put(merge.getMrId(), merge);
+			}
+		});
+		int checked = 0;
+		int requests = 0;
+		List<MergeRequestModel> purged = new ArrayList<>();
+		for (Map.Entry<String, Map<Long, MergeRequestModel>> candidates : candidatesByProject.entrySet()) {
 			try {
-				if (merge.getLastUpdated().toInstant().isBefore(Instant.now().minus(2, ChronoUnit.DAYS)) &&
-					this.gitlabIntegration.isMergeRequestMergedOrClosed(merge.getProject(), merge.getMrId())) {
-					this.mergeMinderDb.removeMergeRequestModel(merge);
-					purgeCount++;
-				}
+				GitlabIntegration.MergedOrClosedCheck check = this.gitlabIntegration.findMergedOrClosed(candidates.getKey(), candidates.getValue().keySet());
+				checked += candidates.getValue().size();
+				requests += check.getRequests();
+				check.getMergedOrClosedIids().forEach(iid -> purged.add(candidates.getValue().get(iid)));
 			} catch (GitlabIntegrationException e) {
 				logger.error("Problem with GitLab integration.", e);
 			}
 		}
-		logger.info("MergePurge complete.  Removed {} entries.", purgeCount);
+		int purgeCount = this.mergeMinderDb.removeMergeRequestModels(purged);
+		purged.forEach(merge -> this.reminderScheduler.cancel(merge.getId()));
+		logger.info("MergePurge complete.  Removed {} entries, checked {} in {} project(s) with {} GitLab request(s).", purgeCount, checked,
+			candidatesByProject.size(), requests);
 	}
 
 	/**
@@ -183,6 +733,38 @@ public class MergeMinder {
 		return ChronoUnit.HOURS.between(mrAssignedAt, Instant.now());
 	}
 
+	/**
+	 * Checks that this instance still minds a project.  With sharding on, a heartbeat may hand the project's shard to
+	 * another instance while it is being minded here, from then on its reminders are the new owner's to send.  With
+	 * sharding off, the leader lock may run out mid-cycle, and from then on every reminder is the new leader's to send.
+	 * Webhook events reach any instance, the others skip the reminders that are due.
+	 *
+	 * @param minderProject
+	 * @return
+	 */
+	private boolean isStillMinded(MinderProjectsModel minderProject) {
+		if (!this.shardCoordinator.isEnabled() && !this.leaderElection.isLeader()) {
+			logger.info("[{}] This instance is not the leader.  Leaving its reminders to the leader.", minderProject.getFullyQualifiedProjectName());
+			return false;
+		}
+		if (this.shardCoordinator.isMinded(minderProject.getFullyQualifiedProjectName())) {
+			return true;
+		}
+		logger.info("[{}] Its shard is no longer minded by this instance.  Leaving it to the instance that took it over.",
+			minderProject.getFullyQualifiedProjectName());
+		return false;
+	}
+
+	/**
+	 * Checks if the scheduled work runs on this instance.  With sharding on every instance runs it for its own shards,
+	 * otherwise only the leader runs it.
+	 *
+	 * @return
+	 */
+	private boolean runsScheduledWork() {
+		return this.shardCoordinator.isEnabled() || this.leaderElection.isLeader();
+	}
+
 	/**
 	 * Converts a user into the best guess email.  First checks the user object for a
 	 * specified email, then guesses it based upon <tt>fname.lname@emaildomain</tt>
@@ -206,4 +788,180 @@ public class MergeMinder {
 		return null;
 	}
 
+	/**
+	 * Minding of one project, or one group fetched namespace, during a cycle.
+	 */
+	private static class ProjectRun {
+
+		private final String name;
+		private FutureTask<Void> task;
+		private volatile long startNanos;
+		private volatile long endNanos;
+		private volatile Instant finishedAt;
+		private volatile boolean timedOut;
+		private boolean failed;
+		private boolean deferred;
+		/* Set by whichever comes first: the run starting, or the run being deferred. */
+		private final AtomicBoolean claimed = new AtomicBoolean();
+
+		ProjectRun(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Waits for the run to finish, or to be cancelled by the watchdog.
+		 */
+		void await() {
+			try {
+				this.task.get();
+			} catch (CancellationException e) {
+				logger.warn("[{}] Minding timed out and was interrupted.", this.name);
+			} catch (ExecutionException e) {
+				this.failed = true;
+				logger.error("[{}] Problem minding.", this.name, e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				this.task.cancel(true);
+			}
+		}
+
+		/**
+		 * Waits for the run to finish until the cycle deadline.
+		 *
+		 * @param deadlineNanos
+		 * @return true if the run finished, failed or was cancelled before the deadline.
+		 */
+		boolean await(long deadlineNanos) {
+			try {
+				this.task.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+				return true;
+			} catch (TimeoutException e) {
+				return false;
+			} catch (CancellationException | ExecutionException e) {
+				// reported by await()
+				return true;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				this.task.cancel(true);
+				return true;
+			}
+		}
+
+		/**
+		 * Defers the run to the next cycle, unless it already started.
+		 *
+		 * @return true if the run was deferred and will not run in this cycle.
+		 */
+		boolean defer() {
+			this.deferred = this.claimed.compareAndSet(false, true);
+			return this.deferred;
+		}
+
+		long getDurationMillis() {
+			return this.startNanos == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis((this.endNanos == 0 ? System.nanoTime() : this.endNanos) - this.startNanos);
+		}
+
+		@Override
+		public String toString() {
+			return this.name + " (" + (this.deferred ? "deferred" : getDurationMillis() + " ms") + (this.timedOut ? ", timed out" : "") + ")";
+		}
+	}
+
+	/**
+	 * The MRs of one project going through the pipeline.  Every MR either makes it through the persist stage, fails in
+	 * one of the stages, or is skipped because it is already being minded, either way it is counted off once.
+	 */
+	private static class MindingBatch {
+
+		private final MinderProjectsModel minderProject;
+		private final CountDownLatch remaining;
+		private final AtomicInteger checked = new AtomicInteger();
+		/* Shared by all batches.  An assignment is claimed by one batch at a time. */
+		private final Set<String> assignmentsInFlight;
+		private final Set<String> claimed = ConcurrentHashMap.newKeySet();
+
+		MindingBatch(MinderProjectsModel minderProject, int size, Set<String> assignmentsInFlight) {
+			this.minderProject = minderProject;
+			this.remaining = new CountDownLatch(size);
+			this.assignmentsInFlight = assignmentsInFlight;
+		}
+
+		/**
+		 * Claims an MR assignment for this batch until it is recorded or fails.
+		 *
+		 * @return false if another batch is minding it.
+		 */
+		boolean claim(MergeRequestAssignmentInfo mrInfo) {
+			String key = getKey(mrInfo);
+			if (!this.assignmentsInFlight.add(key)) {
+				return false;
+			}
+			this.claimed.add(key);
+			return true;
+		}
+
+		/**
+		 * Runs an MR's work in a stage, counting the MR off if it fails.
+		 */
+		void stage(MergeRequestAssignmentInfo mrInfo, StageWork work) {
+			try {
+				work.run();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				release(mrInfo);
+				this.remaining.countDown();
+			} catch (RuntimeException e) {
+				logger.error("Problem minding MR!{} of project [{}/{}].", mrInfo.getMr().getIid(), this.minderProject.getNamespace(),
+					this.minderProject.getProject(), e);
+				release(mrInfo);
+				this.remaining.countDown();
+			}
+		}
+
+		void checked(MergeRequestAssignmentInfo mrInfo) {
+			release(mrInfo);
+			this.checked.incrementAndGet();
+			this.remaining.countDown();
+		}
+
+		/**
+		 * Counts off an MR that is left for another batch or instance to mind.
+		 */
+		void skipped(MergeRequestAssignmentInfo mrInfo) {
+			release(mrInfo);
+			this.remaining.countDown();
+		}
+
+		private void release(MergeRequestAssignmentInfo mrInfo) {
+			String key = getKey(mrInfo);
+			if (this.claimed.remove(key)) {
+				this.assignmentsInFlight.remove(key);
+			}
+		}
+
+		private static String getKey(MergeRequestAssignmentInfo mrInfo) {
+			return mrInfo.getMr().getId() + "/" + mrInfo.getAssignee().getUsername();
+		}
+
+		void await() throws InterruptedException {
+			this.remaining.await();
+		}
+
+		int getChecked() {
+			return this.checked.get();
+		}
+	}
+
+	@FunctionalInterface
+	private interface StageWork {
+		void run() throws InterruptedException;
+	}
+
+	/**
+	 * Minding of one project, or one group fetched namespace.
+	 */
+	@FunctionalInterface
+	private interface ProjectWork {
+		void run() throws GitLabApiException;
+	}
 }
@@ -7,16 +7,40 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.web.client.RestTemplate;
 
+import com.mcs.mergeminder.properties.GitlabProperties;
+import com.mcs.mergeminder.properties.MergeMinderProperties;
+import com.mcs.mergeminder.properties.SlackProperties;
+import com.mcs.mergeminder.util.CircuitBreaker;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
 @SpringBootApplication(scanBasePackages = {"com.mcs.mergeminder"})
 @ConfigurationPropertiesScan
 @EnableAsync
 public class MergeMinderApplication {
 
+	/* Threads calling out besides the minding executors: the reminder scheduler, MergePurge, webhooks and the REST endpoints. */
+	private static final int OTHER_CALLER_THREADS = 4;
+
 	@Bean
 	public RestTemplate restTemplate() {
 		return new RestTemplate();
 	}
 
+	@Bean
+	public CircuitBreaker gitlabCircuitBreaker(GitlabProperties gitlabProperties, MergeMinderProperties mergeMinderProperties, MeterRegistry meterRegistry) {
+		// projects are fetched on the project executor, their MRs enriched on the enrichment executor.
+		int callerThreads = mergeMinderProperties.getProjectParallelism() + gitlabProperties.getEnrichmentThreads() + OTHER_CALLER_THREADS;
+		return new CircuitBreaker("gitlab", gitlabProperties.getCircuitBreaker(), callerThreads, meterRegistry);
+	}
+
+	@Bean
+	public CircuitBreaker slackCircuitBreaker(SlackProperties slackProperties, MergeMinderProperties mergeMinderProperties, MeterRegistry meterRegistry) {
+		// reminders are sent from the notify stage.
+		int callerThreads = mergeMinderProperties.getPipeline().getNotify().getConcurrency() + OTHER_CALLER_THREADS;
+		return new CircuitBreaker("slack", slackProperties.getCircuitBreaker(), callerThreads, meterRegistry);
+	}
+
 	/**
 	 * Entry point of the application. Run this method to start MergeMinder with the component scan, but don't forget
 	 * to add the correct tokens in application.properties file or via the environment.
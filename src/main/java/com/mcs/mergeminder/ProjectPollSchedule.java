@@ -0,0 +1,153 @@
+package com.mcs.mergeminder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.mcs.mergeminder.properties.AdaptivePollingProperties;
+import com.mcs.mergeminder.properties.MergeMinderProperties;
+
+/**
+ * Decides which projects a minding run polls, so GitLab requests go to the projects where reminders can actually be
+ * due.  A project that had open, assigned MRs or changes since it was last polled is polled again after
+ * <tt>mm.adaptivePolling.minIntervalSeconds</tt>.  Each poll that finds it idle doubles its interval, up to
+ * <tt>mm.adaptivePolling.maxIntervalSeconds</tt>.  Projects never polled before are due right away.
+ */
+@Component
+public class ProjectPollSchedule {
+
+	/* Minding runs don't start on the exact second, a project due this close to the run is polled in it. */
+	private static final Duration DUE_SLACK = Duration.ofSeconds(30);
+
+	private final boolean enabled;
+	private final Duration minInterval;
+	private final Duration maxInterval;
+
+	/* Keyed by fully qualified project name. */
+	private final Map<String, ProjectPoll> polls = new ConcurrentHashMap<>();
+
+	public ProjectPollSchedule(MergeMinderProperties mergeMinderProperties) {
+		AdaptivePollingProperties adaptivePolling = mergeMinderProperties.getAdaptivePolling();
+		this.enabled = adaptivePolling.isEnabled();
+		this.minInterval = Duration.ofSeconds(Math.max(1, adaptivePolling.getMinIntervalSeconds()));
+		this.maxInterval = Duration.ofSeconds(Math.max(this.minInterval.getSeconds(), adaptivePolling.getMaxIntervalSeconds()));
+	}
+
+	/**
+	 * @param fullyQualifiedProjectName
+	 * @param runStart when the minding run started
+	 * @return true if the project should be polled by the minding run.
+	 */
+	public boolean isDue(String fullyQualifiedProjectName, Instant runStart) {
+		if (!this.enabled) {
+			return true;
+		}
+		ProjectPoll poll = this.polls.get(fullyQualifiedProjectName);
+		return poll == null || !poll.nextPollAt.isAfter(runStart.plus(DUE_SLACK));
+	}
+
+	/**
+	 * Notes that a project has open, assigned MRs or just changed, so its next poll comes after the shortest interval.
+	 *
+	 * @param fullyQualifiedProjectName
+	 */
+	public void markActive(String fullyQualifiedProjectName) {
+		if (this.enabled) {
+			this.polls.computeIfAbsent(fullyQualifiedProjectName, name -> new ProjectPoll(name, this.minInterval)).activeAt = Instant.now();
+		}
+	}
+
+	/**
+	 * Schedules a project's next poll after it was polled by a minding run.  Only call this for runs that actually
+	 * fetched the project, a failed fetch says nothing about whether the project is idle.
+	 *
+	 * @param fullyQualifiedProjectName
+	 * @param runStart when the minding run started.  Intervals count from there, so they line up with the runs.
+	 * @param polledAt when the project's run finished.  Activity after it counts towards the next poll.
+	 */
+	public void polled(String fullyQualifiedProjectName, Instant runStart, Instant polledAt) {
+		if (!this.enabled) {
+			return;
+		}
+		this.polls.compute(fullyQualifiedProjectName, (name, poll) -> {
+			ProjectPoll next = poll == null ? new ProjectPoll(name, this.minInterval) : poll;
+			if (poll != null && !poll.isActive()) {
+				Duration doubled = poll.interval.multipliedBy(2);
+				next.interval = doubled.compareTo(this.maxInterval) > 0 ? this.maxInterval : doubled;
+			} else {
+				next.interval = this.minInterval;
+			}
+			next.polledAt = polledAt;
+			next.nextPollAt = runStart.plus(next.interval);
+			return next;
+		});
+	}
+
+	/**
+	 * Forgets the projects that are no longer minded here.
+	 *
+	 * @param fullyQualifiedProjectNames the projects still minded
+	 */
+	public void retain(Collection<String> fullyQualifiedProjectNames) {
+		this.polls.keySet().retainAll(fullyQualifiedProjectNames);
+	}
+
+	/**
+	 * @return the intervals currently in use, soonest poll first.
+	 */
+	public List<ProjectPoll> getProjectPolls() {
+		return this.polls.values().stream().sorted(Comparator.comparing(ProjectPoll::getNextPollAt)).collect(Collectors.toList());
+	}
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	/**
+	 * A project's polling interval and when it is polled next.
+	 */
+	@JsonPropertyOrder({"project", "intervalSeconds", "nextPollAt", "active"})
+	public static class ProjectPoll {
+
+		private final String project;
+		private volatile Duration interval;
+		private volatile Instant nextPollAt = Instant.MIN;
+		/* When the last run that polled the project finished, and when the project was last seen active. */
+		private volatile Instant polledAt;
+		private volatile Instant activeAt;
+
+		ProjectPoll(String project, Duration interval) {
+			this.project = project;
+			this.interval = interval;
+		}
+
+		public String getProject() {
+			return project;
+		}
+
+		public long getIntervalSeconds() {
+			return interval.getSeconds();
+		}
+
+		public Instant getNextPollAt() {
+			return nextPollAt;
+		}
+
+		/**
+		 * @return true if the project was active since it was last polled.
+		 */
+		public boolean isActive() {
+			Instant active = activeAt;
+			Instant polled = polledAt;
+			return active != null && (polled == null || active.isAfter(polled));
+		}
+	}
+}
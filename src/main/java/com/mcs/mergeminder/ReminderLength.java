@@ -69,6 +69,20 @@ public enum ReminderLength {
 		return INITIAL_REMINDER;
 	}
 
+	/**
+	 * Get the next ReminderLength to send after the one sent when the MR had been assigned for the given number of hours.
+	 * @param lastReminderSentAt hours since assignment at which the last reminder was sent, -1 if none was sent.
+	 * @return the next reminder, or null if the last one was already sent.
+	 */
+	public static ReminderLength getNextReminder(long lastReminderSentAt) {
+		for (ReminderLength reminderLength : values()) {
+			if (reminderLength.getHours() > lastReminderSentAt) {
+				return reminderLength;
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Gets the message to send in a PM over slack.
 	 * @param assigneeFirstName
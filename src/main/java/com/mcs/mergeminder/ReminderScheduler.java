@@ -0,0 +1,234 @@
+package com.mcs.mergeminder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.mcs.mergeminder.dao.MergeMinderDb;
+import com.mcs.mergeminder.dto.MergeRequestModel;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Keeps the time each recorded MR's next reminder is due, soonest first.  Reminders only change at the
+ * {@link ReminderLength} thresholds, so instead of re-checking every MR on every minding run the scheduler sleeps until
+ * the next reminder is due and hands just the due MRs over.  Every MR recorded by minding is (re)scheduled, and the
+ * queue is rebuilt from the database at startup.
+ */
+@Component
+public class ReminderScheduler {
+
+	private static final Logger logger = LoggerFactory.getLogger(ReminderScheduler.class);
+
+	private final MergeMinderDb mergeMinderDb;
+
+	/* Due reminders, soonest first.  Holds exactly the entries of the scheduled map. */
+	private final PriorityQueue<DueReminder> queue = new PriorityQueue<>(Comparator.comparing(DueReminder::getDueAt));
+	/* The current due reminder of each MR, keyed by MR id. */
+	private final Map<Long, DueReminder> scheduled = new HashMap<>();
+	private final AtomicLong handedOver = new AtomicLong();
+	private Thread thread;
+
+	public ReminderScheduler(MergeMinderDb mergeMinderDb, MeterRegistry meterRegistry) {
+		this.mergeMinderDb = mergeMinderDb;
+		Gauge.builder("mergeminder.reminders.scheduled", this, ReminderScheduler::size)
+			.description("MRs with a reminder still to come")
+			.register(meterRegistry);
+		FunctionCounter.builder("mergeminder.reminders.due", this.handedOver, AtomicLong::get)
+			.description("MRs handed over to be minded because a reminder came due")
+			.register(meterRegistry);
+	}
+
+	/**
+	 * Rebuilds the queue from the database and starts waiting for reminders to come due.
+	 *
+	 * @param onDue called with the MRs whose reminder is due, on the scheduler's own thread.
+	 */
+	public synchronized void start(Consumer<List<MergeRequestModel>> onDue) {
+		if (this.thread != null) {
+			return;
+		}
+		this.mergeMinderDb.getAllMergeRequestModels().forEach(this::schedule);
+		logger.info("Reminder scheduler started with {} MR(s) scheduled.", this.scheduled.size());
+		this.thread = new Thread(() -> run(onDue), "reminder-scheduler");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	@PreDestroy
+	public synchronized void shutdown() {
+		if (this.thread != null) {
+			this.thread.interrupt();
+		}
+	}
+
+	/**
+	 * Schedules an MR's next reminder, replacing the one scheduled before.  MRs that already got their last reminder,
+	 * or whose assignment time is unknown, are dropped.
+	 *
+	 * @param model the MR as recorded
+	 */
+	public synchronized void schedule(MergeRequestModel model) {
+		Instant dueAt = getNextDueAt(model);
+		if (dueAt == null) {
+			cancel(model.getId());
+			return;
+		}
+		schedule(model, dueAt);
+	}
+
+	/**
+	 * Schedules an MR to be handed over again at the given time, ie. when it could not be minded when it came due.
+	 *
+	 * @param model
+	 * @param dueAt
+	 */
+	public synchronized void schedule(MergeRequestModel model, Instant dueAt) {
+		DueReminder current = this.scheduled.get(model.getId());
+		if (current != null && current.getDueAt().equals(dueAt)) {
+			// every minding run records the MR again, mostly with the same due time.  Keep its place in the queue.
+			current.model = model;
+			return;
+		}
+		if (current != null) {
+			this.queue.remove(current);
+		}
+		DueReminder dueReminder = new DueReminder(model, dueAt);
+		this.scheduled.put(model.getId(), dueReminder);
+		this.queue.add(dueReminder);
+		if (this.queue.peek() == dueReminder) {
+			// due sooner than what the scheduler is waiting for.
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Stops scheduling an MR, ie. once it is purged.
+	 *
+	 * @param mrId
+	 */
+	public synchronized void cancel(Long mrId) {
+		DueReminder current = this.scheduled.remove(mrId);
+		if (current != null) {
+			this.queue.remove(current);
+		}
+	}
+
+	public synchronized int size() {
+		return this.scheduled.size();
+	}
+
+	synchronized int queueSize() {
+		return this.queue.size();
+	}
+
+	/**
+	 * Works out when an MR's next reminder is due: its assignment time plus the hours of the first
+	 * {@link ReminderLength} after the last reminder sent.
+	 *
+	 * @param model
+	 * @return when the next reminder is due, or null if there is none.
+	 */
+	static Instant getNextDueAt(MergeRequestModel model) {
+		if (model.getAssignedAt() == null) {
+			return null;
+		}
+		ReminderLength next = ReminderLength.getNextReminder(model.getLastReminderSentAt() == null ? -1 : model.getLastReminderSentAt());
+		if (next == null) {
+			return null;
+		}
+		return model.getAssignedAt().toInstant().plus(Duration.ofHours(next.getHours()));
+	}
+
+	/**
+	 * Takes the MRs whose reminder is due at the given time off the queue.
+	 *
+	 * @param now
+	 * @return the due MRs, soonest first
+	 */
+	synchronized List<MergeRequestModel> pollDue(Instant now) {
+		List<MergeRequestModel> due = new ArrayList<>();
+		while (!this.queue.isEmpty() && !this.queue.peek().getDueAt().isAfter(now)) {
+			DueReminder dueReminder = this.queue.poll();
+			this.scheduled.remove(dueReminder.getModel().getId());
+			due.add(dueReminder.getModel());
+		}
+		return due;
+	}
+
+	// Private Methods
+	///////////////////
+
+	private void run(Consumer<List<MergeRequestModel>> onDue) {
+		while (!Thread.currentThread().isInterrupted()) {
+			List<MergeRequestModel> due;
+			try {
+				due = awaitDue();
+			} catch (InterruptedException e) {
+				return;
+			}
+			this.handedOver.addAndGet(due.size());
+			try {
+				onDue.accept(due);
+			} catch (RuntimeException e) {
+				logger.error("Problem minding {} MR(s) with a due reminder.", due.size(), e);
+			}
+		}
+	}
+
+	/**
+	 * Sleeps until the soonest reminder is due, waking early when a sooner one is scheduled.
+	 */
+	private synchronized List<MergeRequestModel> awaitDue() throws InterruptedException {
+		while (true) {
+			Instant now = Instant.now();
+			List<MergeRequestModel> due = pollDue(now);
+			if (!due.isEmpty()) {
+				return due;
+			}
+			if (this.queue.isEmpty()) {
+				wait();
+			} else {
+				wait(Math.max(1, Duration.between(now, this.queue.peek().getDueAt()).toMillis()));
+			}
+		}
+	}
+
+	/**
+	 * An MR and the time its next reminder is due.
+	 */
+	private static class DueReminder {
+
+		/* The MR as last recorded, replaced while the due time stays the same. */
+		private MergeRequestModel model;
+		private final Instant dueAt;
+
+		DueReminder(MergeRequestModel model, Instant dueAt) {
+			this.model = model;
+			this.dueAt = dueAt;
+		}
+
+		MergeRequestModel getModel() {
+			return model;
+		}
+
+		Instant getDueAt() {
+			return dueAt;
+		}
+	}
+}
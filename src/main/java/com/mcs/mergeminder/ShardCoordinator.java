@@ -0,0 +1,213 @@
+package com.mcs.mergeminder;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.mcs.mergeminder.dao.MergeMinderDb;
+import com.mcs.mergeminder.dto.ShardLeaseModel;
+import com.mcs.mergeminder.properties.MergeMinderProperties;
+import com.mcs.mergeminder.properties.ShardingProperties;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Splits the minded projects between the MergeMinder instances sharing a database, so each project is minded, and
+ * each reminder sent, by one instance only.  Projects are hashed by path into <tt>mm.sharding.shards</tt> shards, and
+ * instances hold time limited leases on shards in the <tt>ShardLeases</tt> table.
+ * <p>
+ * Every heartbeat an instance records itself in <tt>MinderNodes</tt>, renews its leases, and works out its fair share
+ * of the shards from the number of live instances.  It gives up shards above its share and claims free or expired
+ * ones below it, so shards spread evenly as instances come and go, and the shards of an instance that died are taken
+ * over once its leases run out.
+ */
+@Component
+public class ShardCoordinator {
+
+	private static final Logger logger = LoggerFactory.getLogger(ShardCoordinator.class);
+
+	private final MergeMinderDb mergeMinderDb;
+	private final boolean enabled;
+	private final int shards;
+	private final String nodeId;
+	private final Duration lease;
+	private final int heartbeatSeconds;
+
+	private volatile Set<Integer> ownedShards = Set.of();
+	/* The shards are only minded until the leases run out, unless a heartbeat renews them first. */
+	private volatile Instant ownedUntil = Instant.MIN;
+	private ScheduledExecutorService heartbeatExecutor;
+
+	public ShardCoordinator(MergeMinderDb mergeMinderDb, MergeMinderProperties mergeMinderProperties, MeterRegistry meterRegistry) {
+		ShardingProperties sharding = mergeMinderProperties.getSharding();
+		this.mergeMinderDb = mergeMinderDb;
+		this.enabled = sharding.isEnabled();
+		this.shards = Math.max(1, sharding.getShards());
+		this.nodeId = StringUtils.isNotBlank(sharding.getNodeId()) ? sharding.getNodeId() : defaultNodeId();
+		this.lease = Duration.ofSeconds(sharding.getLeaseSeconds());
+		this.heartbeatSeconds = Math.max(1, sharding.getHeartbeatSeconds());
+		Gauge.builder("mergeminder.sharding.owned", this, coordinator -> coordinator.getOwnedShards().size())
+			.description("Shards of projects minded by this instance")
+			.register(meterRegistry);
+	}
+
+	@PostConstruct
+	public void init() {
+		if (!this.enabled) {
+			return;
+		}
+		this.mergeMinderDb.createShardLeases(this.shards);
+		heartbeat();
+		this.heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "shard-heartbeat");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.heartbeatExecutor.scheduleWithFixedDelay(this::heartbeat, this.heartbeatSeconds, this.heartbeatSeconds, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Gives the shards back right away on a clean shutdown, so the other instances don't wait for the leases to run out.
+	 */
+	@PreDestroy
+	public synchronized void shutdown() {
+		if (this.heartbeatExecutor == null) {
+			return;
+		}
+		this.heartbeatExecutor.shutdownNow();
+		Set<Integer> released = this.ownedShards;
+		this.ownedShards = Set.of();
+		try {
+			released.forEach(shard -> this.mergeMinderDb.releaseShardLease(shard, this.nodeId));
+			this.mergeMinderDb.removeNode(this.nodeId);
+		} catch (RuntimeException e) {
+			logger.warn("[{}] Could not release shards {}, they are taken over once the leases run out.", this.nodeId, released, e);
+		}
+	}
+
+	/**
+	 * Checks if this instance minds a project.
+	 *
+	 * @param fullyQualifiedProjectName ie: "frontend/ui-projeckt-x"
+	 * @return true if sharding is off, or the project's shard is leased to this instance.
+	 */
+	public boolean isMinded(String fullyQualifiedProjectName) {
+		if (!this.enabled) {
+			return true;
+		}
+		return Instant.now().isBefore(this.ownedUntil) && this.ownedShards.contains(getShard(fullyQualifiedProjectName, this.shards));
+	}
+
+	/**
+	 * Renews this instance's leases and moves it towards its fair share of the shards.  Runs every
+	 * <tt>mm.sharding.heartbeatSeconds</tt>.
+	 */
+	public synchronized void heartbeat() {
+		Instant now = Instant.now();
+		Date expiresAt = Date.from(now.plus(this.lease));
+		try {
+			this.mergeMinderDb.recordNodeHeartbeat(this.nodeId, Date.from(now));
+			this.mergeMinderDb.renewShardLeases(this.nodeId, expiresAt);
+			int fairShare = getFairShare(this.mergeMinderDb.getLiveNodeIds(Date.from(now.minus(this.lease))));
+			List<ShardLeaseModel> leases = this.mergeMinderDb.getShardLeases();
+			TreeSet<Integer> owned = new TreeSet<>();
+			for (ShardLeaseModel shardLease : leases) {
+				if (this.nodeId.equals(shardLease.getOwner())) {
+					owned.add(shardLease.getShard());
+				}
+			}
+			// give up the highest shards first, claim the lowest free ones, so nodes settle on ranges of shards.
+			while (owned.size() > fairShare) {
+				Integer shard = owned.last();
+				this.mergeMinderDb.releaseShardLease(shard, this.nodeId);
+				owned.remove(shard);
+			}
+			for (ShardLeaseModel shardLease : leases) {
+				if (owned.size() >= fairShare) {
+					break;
+				}
+				boolean claimable = shardLease.getOwner() == null || shardLease.getExpiresAt() == null || shardLease.getExpiresAt().toInstant().isBefore(now);
+				if (claimable && this.mergeMinderDb.claimShardLease(shardLease.getShard(), this.nodeId, expiresAt, Date.from(now))) {
+					owned.add(shardLease.getShard());
+				}
+			}
+			if (!owned.equals(this.ownedShards)) {
+				logger.info("[{}] Now minding shards {} of {} (fair share {}).", this.nodeId, owned, this.shards, fairShare);
+			}
+			this.ownedShards = Set.copyOf(owned);
+			this.ownedUntil = expiresAt.toInstant();
+		} catch (RuntimeException e) {
+			// the shards are left to run out, another instance takes them over if this keeps failing.
+			logger.error("[{}] Could not renew shard leases.", this.nodeId, e);
+		}
+	}
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	public Set<Integer> getOwnedShards() {
+		return Instant.now().isBefore(this.ownedUntil) ? this.ownedShards : Set.of();
+	}
+
+	public String getNodeId() {
+		return this.nodeId;
+	}
+
+	/**
+	 * Hashes a project into a shard.  String hash codes are the same on every JVM, so every instance agrees.
+	 *
+	 * @param fullyQualifiedProjectName
+	 * @param shards
+	 * @return
+	 */
+	static int getShard(String fullyQualifiedProjectName, int shards) {
+		return Math.floorMod(fullyQualifiedProjectName.hashCode(), shards);
+	}
+
+	// Private Methods
+	///////////////////
+
+	/**
+	 * Splits the shards evenly between the live nodes.  When they don't split evenly, the first nodes by id take one
+	 * more.
+	 */
+	private int getFairShare(List<String> liveNodeIds) {
+		int index = liveNodeIds.indexOf(this.nodeId);
+		int nodes = liveNodeIds.size();
+		if (index < 0) {
+			// our own heartbeat is not visible yet, count ourselves in last.
+			index = nodes;
+			nodes++;
+		}
+		return this.shards / nodes + (index < this.shards % nodes ? 1 : 0);
+	}
+
+	private static String defaultNodeId() {
+		String host;
+		try {
+			host = InetAddress.getLocalHost().getHostName();
+		} catch (UnknownHostException e) {
+			host = "mergeminder";
+		}
+		return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+	}
+}
@@ -0,0 +1,54 @@
+package com.mcs.mergeminder.dao;
+
+import java.util.Date;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.mcs.mergeminder.dto.LeaderLockModel;
+
+public interface LeaderLockRepository extends CrudRepository<LeaderLockModel, String> {
+
+	/**
+	 * Adds a lock's row unless it is already there.  An existing row is left as it is, so an instance adding the row
+	 * never wipes out a lock another instance took in the meantime.
+	 *
+	 * @param name
+	 * @return 1 if the row was added, 0 if it was already there.
+	 */
+	@Modifying
+	@Transactional
+	@Query(value = "insert into LeaderLocks (name) values (:name) on duplicate key update name = name", nativeQuery = true)
+	int insertIfAbsent(@Param("name") String name);
+
+	/**
+	 * Takes or renews a lock if it is free, already held by the owner, or ran out.  A single conditional update, so only
+	 * one instance holds the lock at a time.
+	 *
+	 * @param name
+	 * @param owner
+	 * @param expiresAt
+	 * @param now
+	 * @return 1 if the owner holds the lock, 0 if another instance does.
+	 */
+	@Modifying
+	@Transactional
+	@Query("update LeaderLocks l set l.owner = :owner, l.expiresAt = :expiresAt where l.name = :name"
+		+ " and (l.owner is null or l.owner = :owner or l.expiresAt < :now)")
+	int acquire(@Param("name") String name, @Param("owner") String owner, @Param("expiresAt") Date expiresAt, @Param("now") Date now);
+
+	/**
+	 * Gives up a lock, if the owner still holds it.
+	 *
+	 * @param name
+	 * @param owner
+	 * @return 1 if the lock was released
+	 */
+	@Modifying
+	@Transactional
+	@Query("update LeaderLocks l set l.owner = null, l.expiresAt = null where l.name = :name and l.owner = :owner")
+	int release(@Param("name") String name, @Param("owner") String owner);
+}
@@ -1,31 +1,58 @@
 package com.mcs.mergeminder.dao;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
 
 import com.mcs.mergeminder.dto.MergeRequestAssignmentInfo;
 import com.mcs.mergeminder.dto.MergeRequestModel;
+import com.mcs.mergeminder.dto.MinderNodeModel;
+import com.mcs.mergeminder.dto.MindingCheckpointModel;
 import com.mcs.mergeminder.dto.MinderProjectsModel;
+import com.mcs.mergeminder.dto.PendingNotificationModel;
+import com.mcs.mergeminder.dto.ShardLeaseModel;
 import com.mcs.mergeminder.dto.UserMappingModel;
 
 @Configuration
 public class MergeMinderDb {
 
+	/* How far apart two assignment times can be and still be considered the same assignment. */
+	private static final Duration ASSIGNMENT_MATCH_TOLERANCE = Duration.ofMinutes(1);
+	/* MRs read from the database at a time when going through stale MRs. */
+	private static final int STALE_PAGE_SIZE = 500;
+
 	private Logger log = LoggerFactory.getLogger(MergeMinderDb.class);
 
 	private final MinderProjectsRepository minderProjectsRepository;
 	private final MergeRequestRepository mergeRequestRepository;
 	private final UserMappingRepository userMappingRepository;
+	private final ShardLeaseRepository shardLeaseRepository;
+	private final MinderNodeRepository minderNodeRepository;
+	private final LeaderLockRepository leaderLockRepository;
+	private final MindingCheckpointRepository mindingCheckpointRepository;
+	private final PendingNotificationRepository pendingNotificationRepository;
 
-	public MergeMinderDb(MinderProjectsRepository minderProjectsRepository, MergeRequestRepository mergeRequestRepository, UserMappingRepository userMappingRepository) {
+	public MergeMinderDb(MinderProjectsRepository minderProjectsRepository, MergeRequestRepository mergeRequestRepository, UserMappingRepository userMappingRepository,
+		ShardLeaseRepository shardLeaseRepository, MinderNodeRepository minderNodeRepository, LeaderLockRepository leaderLockRepository,
+		MindingCheckpointRepository mindingCheckpointRepository, PendingNotificationRepository pendingNotificationRepository) {
 		this.minderProjectsRepository = minderProjectsRepository;
 		this.mergeRequestRepository = mergeRequestRepository;
 		this.userMappingRepository = userMappingRepository;
+		this.shardLeaseRepository = shardLeaseRepository;
+		this.minderNodeRepository = minderNodeRepository;
+		this.leaderLockRepository = leaderLockRepository;
+		this.mindingCheckpointRepository = mindingCheckpointRepository;
+		this.pendingNotificationRepository = pendingNotificationRepository;
 	}
 
 	// Merge Request Models
@@ -41,6 +68,32 @@ public class MergeMinderDb {
 		return StreamSupport.stream(mergeRequestRepository.findAll().spliterator(), false).collect(Collectors.toList());
 	}
 
+	/**
+	 * Goes through the MRs that were last updated before the given time, reading them a page at a time.  Only the
+	 * stale MRs are read, the rest of the table is never loaded.
+	 *
+	 * @param updatedBefore
+	 * @param action called for every stale MR
+	 * @return number of stale MRs
+	 */
+	public int forEachMergeRequestModelUpdatedBefore(Date updatedBefore, Consumer<MergeRequestModel> action) {
+		int count = 0;
+		Date afterUpdated = new Date(0);
+		long afterId = 0;
+		List<MergeRequestModel> page;
+		do {
+			page = mergeRequestRepository.findUpdatedBeforeAfter(updatedBefore, afterUpdated, afterId, PageRequest.ofSize(STALE_PAGE_SIZE));
+			if (!page.isEmpty()) {
+				MergeRequestModel last = page.get(page.size() - 1);
+				afterUpdated = last.getLastUpdated();
+				afterId = last.getId();
+			}
+			page.forEach(action);
+			count += page.size();
+		} while (page.size() == STALE_PAGE_SIZE);
+		return count;
+	}
+
 	public MergeRequestModel getMergeRequestModel(long id) {
 		return mergeRequestRepository.findById(id).orElse(null);
 	}
@@ -50,17 +103,31 @@ public class MergeMinderDb {
 	}
 
 	/**
-	 * @param mrId the merge request id
-	 * @param lastAssignmentId
-	 * @return
+	 * Removes MRs in bulk.
+	 *
+	 * @param models
+	 * @return number of MRs removed
+	 */
+	public int removeMergeRequestModels(Collection<MergeRequestModel> models) {
+		if (models.isEmpty()) {
+			return 0;
+		}
+		return mergeRequestRepository.deleteByIdIn(models.stream().map(MergeRequestModel::getId).collect(Collectors.toList()));
+	}
+
+	/**
+	 * Gets the last reminder sent for the MR's current assignment.
+	 *
+	 * @param mrInfo
+	 * @return the last reminder sent, or -1 if none was sent for this assignment yet.
 	 */
-	public long getLastReminderSent(long mrId, long lastAssignmentId) {
-		MergeRequestModel mrModel = mergeRequestRepository.findById(mrId).orElse(null);
-		if (mrModel != null && lastAssignmentId != mrModel.getLastAssignmentId()) {
-			// this has been reassigned since we last saw it.  clear the last reminder sent time.
+	public long getLastReminderSent(MergeRequestAssignmentInfo mrInfo) {
+		MergeRequestModel mrModel = mergeRequestRepository.findById(mrInfo.getMr().getId()).orElse(null);
+		if (mrModel == null || !isSameAssignment(mrModel, mrInfo)) {
+			// never seen, or reassigned since we last saw it.  clear the last reminder sent time.
 			return -1;
 		}
-		return (mrModel == null ? -1 : mrModel.getLastReminderSentAt());
+		return mrModel.getLastReminderSentAt();
 	}
 
 	// Project Models
@@ -73,6 +140,24 @@ public class MergeMinderDb {
 		return StreamSupport.stream(minderProjectsRepository.findByNamespaceOrderByProject(namespace).spliterator(), false).collect(Collectors.toList());
 	}
 
+	/**
+	 * Finds the minded project with the given GitLab project id, falling back to its path for projects whose id has
+	 * not been resolved yet.
+	 *
+	 * @param gitlabProjectId null to find the project by its path only
+	 * @param fullyQualifiedProjectName
+	 * @return the minded project, or null if the project is not minded.
+	 */
+	public MinderProjectsModel getMinderProject(Long gitlabProjectId, String fullyQualifiedProjectName) {
+		MinderProjectsModel project = gitlabProjectId == null ? null : minderProjectsRepository.findFirstByGitlabProjectId(gitlabProjectId);
+		if (project == null && fullyQualifiedProjectName != null && fullyQualifiedProjectName.contains("/")) {
+			int split = fullyQualifiedProjectName.lastIndexOf('/');
+			project = minderProjectsRepository.findFirstByNamespaceAndProject(fullyQualifiedProjectName.substring(0, split),
+				fullyQualifiedProjectName.substring(split + 1));
+		}
+		return project;
+	}
+
 	public MinderProjectsModel saveMinderProject(MinderProjectsModel project) {
 		if (project != null) {
 			return minderProjectsRepository.save(project);
@@ -109,6 +194,165 @@ public class MergeMinderDb {
 		return null;
 	}
 
+	// Shard Leases
+	////////////////
+	/**
+	 * Adds the lease rows of any shards that don't have one yet.  Nodes starting together may race to add the same
+	 * row, the row is only inserted if it is still missing so the losers leave the winner's row alone.
+	 *
+	 * @param shards number of shards
+	 */
+	public void createShardLeases(int shards) {
+		for (int shard = 0; shard < shards; shard++) {
+			if (!shardLeaseRepository.existsById(shard) && shardLeaseRepository.insertIfAbsent(shard) == 0) {
+				log.debug("Shard {} was added by another node.", shard);
+			}
+		}
+	}
+
+	public List<ShardLeaseModel> getShardLeases() {
+		return shardLeaseRepository.findAllByOrderByShardAsc();
+	}
+
+	public boolean claimShardLease(int shard, String nodeId, Date expiresAt, Date now) {
+		return shardLeaseRepository.claim(shard, nodeId, expiresAt, now) > 0;
+	}
+
+	public int renewShardLeases(String nodeId, Date expiresAt) {
+		return shardLeaseRepository.renew(nodeId, expiresAt);
+	}
+
+	public boolean releaseShardLease(int shard, String nodeId) {
+		return shardLeaseRepository.release(shard, nodeId) > 0;
+	}
+
+	// Minder Nodes
+	////////////////
+	public void recordNodeHeartbeat(String nodeId, Date heartbeatAt) {
+		minderNodeRepository.save(new MinderNodeModel(nodeId, heartbeatAt));
+	}
+
+	/**
+	 * @param heartbeatAfter
+	 * @return ids of the nodes with a heartbeat after the given time, in order.
+	 */
+	public List<String> getLiveNodeIds(Date heartbeatAfter) {
+		return minderNodeRepository.findByLastHeartbeatAfterOrderByNodeIdAsc(heartbeatAfter).stream().map(MinderNodeModel::getNodeId).collect(Collectors.toList());
+	}
+
+	public void removeNode(String nodeId) {
+		minderNodeRepository.deleteById(nodeId);
+	}
+
+	// Leader Locks
+	////////////////
+	/**
+	 * Adds a lock's row if it doesn't have one yet.  Instances starting together may race to add it, the row is only
+	 * inserted if it is still missing so the losers leave the winner's lock alone.
+	 *
+	 * @param name
+	 */
+	public void createLeaderLock(String name) {
+		if (!leaderLockRepository.existsById(name) && leaderLockRepository.insertIfAbsent(name) == 0) {
+			log.debug("Leader lock {} was added by another node.", name);
+		}
+	}
+
+	public boolean acquireLeaderLock(String name, String nodeId, Date expiresAt, Date now) {
+		return leaderLockRepository.acquire(name, nodeId, expiresAt, now) > 0;
+	}
+
+	public boolean releaseLeaderLock(String name, String nodeId) {
+		return leaderLockRepository.release(name, nodeId) > 0;
+	}
+
+	// Minding Checkpoints
+	///////////////////////
+	public MindingCheckpointModel getMindingCheckpoint(String name) {
+		return mindingCheckpointRepository.findById(name).orElse(null);
+	}
+
+	public MindingCheckpointModel saveMindingCheckpoint(MindingCheckpointModel checkpoint) {
+		return mindingCheckpointRepository.save(checkpoint);
+	}
+
+	public void removeMindingCheckpoint(String name) {
+		if (mindingCheckpointRepository.existsById(name)) {
+			mindingCheckpointRepository.deleteById(name);
+		}
+	}
+
+	// Pending Notifications
+	/////////////////////////
+	/**
+	 * Records a reminder that is about to be sent, so it is not sent again if MergeMinder stops before the MR is
+	 * recorded with it.
+	 *
+	 * @param mrInfo
+	 * @param reminderSentAt hours since assignment the reminder is sent at
+	 */
+	public void recordPendingNotification(MergeRequestAssignmentInfo mrInfo, long reminderSentAt) {
+		pendingNotificationRepository.save(new PendingNotificationModel(mrInfo, reminderSentAt));
+	}
+
+	/**
+	 * Removes the pending reminder of an MR assignee, once it is recorded or if it was not sent.
+	 *
+	 * @param mrInfo
+	 */
+	public void removePendingNotification(MergeRequestAssignmentInfo mrInfo) {
+		pendingNotificationRepository.deleteById(new PendingNotificationModel.Key(mrInfo.getMr().getId(), mrInfo.getAssignee().getUsername()));
+	}
+
+	/**
+	 * Records the reminders MergeMinder stopped in the middle of sending as sent.  They may or may not have reached
+	 * Slack, and a missed reminder is caught up by the next one while a duplicate can't be taken back.
+	 *
+	 * @return number of reminders recorded
+	 */
+	public int recoverPendingNotifications() {
+		int recovered = 0;
+		for (PendingNotificationModel pending : pendingNotificationRepository.findAll()) {
+			MergeRequestModel mrModel = mergeRequestRepository.findById(pending.getId()).orElse(null);
+			// the MR may be recorded with another of its assignees, their reminders don't count for this one.
+			boolean sameAssignment = mrModel != null && pending.getLastAssignmentId().equals(mrModel.getLastAssignmentId())
+				&& Objects.equals(pending.getAssignee(), mrModel.getAssignee());
+			if (!sameAssignment || mrModel.getLastReminderSentAt() == null || mrModel.getLastReminderSentAt() < pending.getReminderSentAt()) {
+				MergeRequestModel newMrModel = new MergeRequestModel(mrModel);
+				newMrModel.setId(pending.getId());
+				newMrModel.setProject(pending.getProject());
+				newMrModel.setMrId(pending.getMrId());
+				newMrModel.setAssignee(pending.getAssignee());
+				newMrModel.setAssigneeEmail(pending.getAssigneeEmail());
+				newMrModel.setLastAssignmentId(pending.getLastAssignmentId());
+				newMrModel.setAssignedAt(pending.getAssignedAt());
+				newMrModel.setLastReminderSentAt(pending.getReminderSentAt());
+				mergeRequestRepository.save(newMrModel);
+				recovered++;
+			}
+			pendingNotificationRepository.delete(pending);
+		}
+		return recovered;
+	}
+
+	/**
+	 * Checks if the stored MR is still on the same assignment as the one just seen.  Assignments recorded from webhooks
+	 * don't know the id of GitLab's assignment note, so when either side has no note id they are matched on the time of
+	 * the assignment instead.
+	 */
+	private boolean isSameAssignment(MergeRequestModel mrModel, MergeRequestAssignmentInfo mrInfo) {
+		if (mrInfo.getLastAssignmentId().equals(mrModel.getLastAssignmentId())) {
+			return true;
+		}
+		if (mrInfo.getLastAssignmentId() > 0 && mrModel.getLastAssignmentId() != null && mrModel.getLastAssignmentId() > 0) {
+			return false;
+		}
+		if (mrInfo.getAssignedAt() == null || mrModel.getAssignedAt() == null) {
+			return false;
+		}
+		return Math.abs(mrInfo.getAssignedAt().getTime() - mrModel.getAssignedAt().getTime()) <= ASSIGNMENT_MATCH_TOLERANCE.toMillis();
+	}
+
 	private MergeRequestModel updateMrModel(MergeRequestModel mrModel, MergeRequestAssignmentInfo mrInfo, long lastNotificationAt) {
 		MergeRequestModel newMergeRequestModel = new MergeRequestModel(mrModel);
 
@@ -1,6 +1,15 @@
 package com.mcs.mergeminder.dao;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.mcs.mergeminder.dto.MergeRequestModel;
 
@@ -9,4 +18,32 @@ public interface MergeRequestRepository extends CrudRepository<MergeRequestModel
 	// CRUD refers Create, Read, Update, Delete
 
 	MergeRequestModel findFirstByProjectAndMrId(String project, Long mrId);
+
+	/**
+	 * Finds a page of MRs last updated before the given time, in <tt>lastUpdated</tt> then id order.  Pages are read by
+	 * passing the last MR of the previous page instead of an offset.  That is the order of the <tt>lastUpdated</tt>
+	 * index, which holds the id as well, so every page is a range scan of the index that stops after one page.
+	 *
+	 * @param updatedBefore
+	 * @param afterUpdated last updated time of the last MR of the previous page, the epoch for the first page
+	 * @param afterId id of the last MR of the previous page, 0 for the first page
+	 * @param pageable page size
+	 * @return
+	 */
+	@Query("select mr from MergeRequests mr where mr.lastUpdated < :updatedBefore"
+		+ " and (mr.lastUpdated > :afterUpdated or (mr.lastUpdated = :afterUpdated and mr.id > :afterId))"
+		+ " order by mr.lastUpdated, mr.id")
+	List<MergeRequestModel> findUpdatedBeforeAfter(@Param("updatedBefore") Date updatedBefore, @Param("afterUpdated") Date afterUpdated,
+		@Param("afterId") Long afterId, Pageable pageable);
+
+	/**
+	 * Deletes MRs with a single statement, without loading them first.
+	 *
+	 * @param ids
+	 * @return number of MRs deleted
+	 */
+	@Modifying
+	@Transactional
+	@Query("delete from MergeRequests mr where mr.id in :ids")
+	int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,13 @@
+package com.mcs.mergeminder.dao;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.repository.CrudRepository;
+
+import com.mcs.mergeminder.dto.MinderNodeModel;
+
+public interface MinderNodeRepository extends CrudRepository<MinderNodeModel, String> {
+
+	List<MinderNodeModel> findByLastHeartbeatAfterOrderByNodeIdAsc(Date after);
+}
@@ -11,4 +11,8 @@ public interface MinderProjectsRepository extends CrudRepository<MinderProjectsM
 	List<MinderProjectsModel> findAllByOrderByNamespaceAscProjectAsc();
 
 	List<MinderProjectsModel> findByNamespaceOrderByProject(String namespace);
+
+	MinderProjectsModel findFirstByGitlabProjectId(Long gitlabProjectId);
+
+	MinderProjectsModel findFirstByNamespaceAndProject(String namespace, String project);
 }
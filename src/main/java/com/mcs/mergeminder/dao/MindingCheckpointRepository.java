@@ -0,0 +1,8 @@
+package com.mcs.mergeminder.dao;
+
+import org.springframework.data.repository.CrudRepository;
+
+import com.mcs.mergeminder.dto.MindingCheckpointModel;
+
+public interface MindingCheckpointRepository extends CrudRepository<MindingCheckpointModel, String> {
+}
@@ -0,0 +1,8 @@
+package com.mcs.mergeminder.dao;
+
+import org.springframework.data.repository.CrudRepository;
+
+import com.mcs.mergeminder.dto.PendingNotificationModel;
+
+public interface PendingNotificationRepository extends CrudRepository<PendingNotificationModel, PendingNotificationModel.Key> {
+}
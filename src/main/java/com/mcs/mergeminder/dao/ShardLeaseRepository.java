@@ -0,0 +1,69 @@
+package com.mcs.mergeminder.dao;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.mcs.mergeminder.dto.ShardLeaseModel;
+
+public interface ShardLeaseRepository extends CrudRepository<ShardLeaseModel, Integer> {
+
+	List<ShardLeaseModel> findAllByOrderByShardAsc();
+
+	/**
+	 * Adds a shard's lease row unless it is already there.  An existing row is left as it is, so a node adding the row
+	 * never wipes out a lease another node claimed in the meantime.
+	 *
+	 * @param shard
+	 * @return 1 if the row was added, 0 if it was already there.
+	 */
+	@Modifying
+	@Transactional
+	@Query(value = "insert into ShardLeases (shard) values (:shard) on duplicate key update shard = shard", nativeQuery = true)
+	int insertIfAbsent(@Param("shard") Integer shard);
+
+	/**
+	 * Claims a shard if no node holds it, or its lease ran out.  A single conditional update, so when two nodes claim
+	 * the same shard only one of them gets it.
+	 *
+	 * @param shard
+	 * @param owner
+	 * @param expiresAt
+	 * @param now
+	 * @return 1 if the shard was claimed, 0 if another node holds it.
+	 */
+	@Modifying
+	@Transactional
+	@Query("update ShardLeases l set l.owner = :owner, l.expiresAt = :expiresAt where l.shard = :shard"
+		+ " and (l.owner is null or l.owner = :owner or l.expiresAt < :now)")
+	int claim(@Param("shard") Integer shard, @Param("owner") String owner, @Param("expiresAt") Date expiresAt, @Param("now") Date now);
+
+	/**
+	 * Extends every lease a node still holds.
+	 *
+	 * @param owner
+	 * @param expiresAt
+	 * @return number of leases extended
+	 */
+	@Modifying
+	@Transactional
+	@Query("update ShardLeases l set l.expiresAt = :expiresAt where l.owner = :owner")
+	int renew(@Param("owner") String owner, @Param("expiresAt") Date expiresAt);
+
+	/**
+	 * Gives up a shard, if the node still holds it.
+	 *
+	 * @param shard
+	 * @param owner
+	 * @return 1 if the shard was released
+	 */
+	@Modifying
+	@Transactional
+	@Query("update ShardLeases l set l.owner = null, l.expiresAt = null where l.shard = :shard and l.owner = :owner")
+	int release(@Param("shard") Integer shard, @Param("owner") String owner);
+}
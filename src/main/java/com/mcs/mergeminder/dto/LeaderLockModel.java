@@ -0,0 +1,62 @@
+package com.mcs.mergeminder.dto;
+
+import java.util.Date;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+@Entity(name = "LeaderLocks")
+public class LeaderLockModel {
+
+	@Id
+	private String name;
+	private String owner;
+	private Date expiresAt;
+
+	public LeaderLockModel() {
+		// empty constructor
+	}
+
+	public LeaderLockModel(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * The instance holding the lock, null if none does.
+	 * @return
+	 */
+	public String getOwner() {
+		return owner;
+	}
+
+	public void setOwner(String owner) {
+		this.owner = owner;
+	}
+
+	/**
+	 * When the lock runs out unless its owner renews it.
+	 * @return
+	 */
+	public Date getExpiresAt() {
+		if (expiresAt == null) {
+			return null;
+		}
+		return new Date(expiresAt.getTime());
+	}
+
+	public void setExpiresAt(Date expiresAt) {
+		if (expiresAt == null) {
+			this.expiresAt = null;
+		} else {
+			this.expiresAt = new Date(expiresAt.getTime());
+		}
+	}
+}
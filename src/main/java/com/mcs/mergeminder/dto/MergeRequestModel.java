@@ -4,13 +4,16 @@ import java.util.Date;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
 
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.annotation.JsonRootName;
 
 @Entity(name = "MergeRequests")
+@Table(indexes = @Index(name = "idx_MergeRequests_lastUpdated", columnList = "lastUpdated"))
 @JsonRootName(value = "MindedMergeRequest")
 @JsonPropertyOrder({"id", "project", "mrId"})
 public class MergeRequestModel {
@@ -0,0 +1,46 @@
+package com.mcs.mergeminder.dto;
+
+import java.util.Date;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+@Entity(name = "MinderNodes")
+public class MinderNodeModel {
+
+	@Id
+	private String nodeId;
+	private Date lastHeartbeat;
+
+	public MinderNodeModel() {
+		// empty constructor
+	}
+
+	public MinderNodeModel(String nodeId, Date lastHeartbeat) {
+		this.nodeId = nodeId;
+		setLastHeartbeat(lastHeartbeat);
+	}
+
+	public String getNodeId() {
+		return nodeId;
+	}
+
+	public void setNodeId(String nodeId) {
+		this.nodeId = nodeId;
+	}
+
+	public Date getLastHeartbeat() {
+		if (lastHeartbeat == null) {
+			return null;
+		}
+		return new Date(lastHeartbeat.getTime());
+	}
+
+	public void setLastHeartbeat(Date lastHeartbeat) {
+		if (lastHeartbeat == null) {
+			this.lastHeartbeat = null;
+		} else {
+			this.lastHeartbeat = new Date(lastHeartbeat.getTime());
+		}
+	}
+}
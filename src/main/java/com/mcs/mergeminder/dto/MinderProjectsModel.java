@@ -5,10 +5,11 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
 @Entity(name = "MinderProjects")
-@JsonPropertyOrder({"id", "namespace", "project"})
+@JsonPropertyOrder({"id", "namespace", "project", "gitlabProjectId"})
 public class MinderProjectsModel {
 
 	@Id
@@ -16,6 +17,7 @@ public class MinderProjectsModel {
 	private Integer id;
 	private String namespace;
 	private String project;
+	private Long gitlabProjectId;
 
 	public MinderProjectsModel() {
 		// empty constructor
@@ -49,4 +51,26 @@ public class MinderProjectsModel {
 	public void setNamespace(String namespace) {
 		this.namespace = namespace;
 	}
+
+	/**
+	 * The numeric id GitLab uses for this project.  Resolved from the namespace and project name the first time the
+	 * project is minded, and kept so the project can be found again without a lookup, even after a rename.
+	 * @return
+	 */
+	public Long getGitlabProjectId() {
+		return gitlabProjectId;
+	}
+
+	public void setGitlabProjectId(Long gitlabProjectId) {
+		this.gitlabProjectId = gitlabProjectId;
+	}
+
+	/**
+	 * The fully qualified project name.  ie: "frontend/ui-projeckt-x"
+	 * @return
+	 */
+	@JsonIgnore
+	public String getFullyQualifiedProjectName() {
+		return namespace + "/" + project;
+	}
 }
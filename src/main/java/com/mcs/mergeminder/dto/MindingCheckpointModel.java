@@ -0,0 +1,76 @@
+package com.mcs.mergeminder.dto;
+
+import java.util.Date;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+
+@Entity(name = "MindingCheckpoints")
+public class MindingCheckpointModel {
+
+	@Id
+	private String name;
+	private String cycleId;
+	private Date startedAt;
+	@Lob
+	private String completedRuns;
+
+	public MindingCheckpointModel() {
+		// empty constructor
+	}
+
+	public MindingCheckpointModel(String name, String cycleId, Date startedAt) {
+		this.name = name;
+		this.cycleId = cycleId;
+		setStartedAt(startedAt);
+		this.completedRuns = "";
+	}
+
+	/**
+	 * Whose cycle this is: "minding", or the instance's node id when projects are sharded between instances.
+	 * @return
+	 */
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public String getCycleId() {
+		return cycleId;
+	}
+
+	public void setCycleId(String cycleId) {
+		this.cycleId = cycleId;
+	}
+
+	public Date getStartedAt() {
+		if (startedAt == null) {
+			return null;
+		}
+		return new Date(startedAt.getTime());
+	}
+
+	public void setStartedAt(Date startedAt) {
+		if (startedAt == null) {
+			this.startedAt = null;
+		} else {
+			this.startedAt = new Date(startedAt.getTime());
+		}
+	}
+
+	/**
+	 * The projects, or group fetched namespaces, the cycle finished minding.  One per line.
+	 * @return
+	 */
+	public String getCompletedRuns() {
+		return completedRuns;
+	}
+
+	public void setCompletedRuns(String completedRuns) {
+		this.completedRuns = completedRuns;
+	}
+}
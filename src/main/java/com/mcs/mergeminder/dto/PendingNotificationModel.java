@@ -0,0 +1,195 @@
+package com.mcs.mergeminder.dto;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Objects;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.PrePersist;
+
+/**
+ * A reminder that is about to be sent, recorded before it goes to Slack and removed once the MR is recorded with it.
+ * One left behind means MergeMinder stopped in between, and the reminder may have been sent.  Keyed by the MR and
+ * the assignee, each assignee of an MR is reminded separately.
+ */
+@Entity(name = "PendingNotifications")
+@IdClass(PendingNotificationModel.Key.class)
+public class PendingNotificationModel {
+
+	@Id
+	private Long id;
+	@Id
+	private String assigneeUsername;
+	private String project;
+	private Long mrId;
+	private String assignee;
+	private String assigneeEmail;
+	private Long lastAssignmentId;
+	private Date assignedAt;
+	private Long reminderSentAt;
+	private Date createdAt;
+
+	public PendingNotificationModel() {
+		// empty constructor
+	}
+
+	public PendingNotificationModel(MergeRequestAssignmentInfo mrInfo, long reminderSentAt) {
+		this.id = mrInfo.getMr().getId();
+		this.assigneeUsername = mrInfo.getAssignee().getUsername();
+		this.project = mrInfo.getFullyQualifiedProjectName();
+		this.mrId = mrInfo.getMr().getIid();
+		this.assignee = mrInfo.getAssignee().getName();
+		this.assigneeEmail = mrInfo.getAssignee().getEmail();
+		this.lastAssignmentId = mrInfo.getLastAssignmentId();
+		setAssignedAt(mrInfo.getAssignedAt());
+		this.reminderSentAt = reminderSentAt;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getAssigneeUsername() {
+		return assigneeUsername;
+	}
+
+	public void setAssigneeUsername(String assigneeUsername) {
+		this.assigneeUsername = assigneeUsername;
+	}
+
+	public String getProject() {
+		return project;
+	}
+
+	public void setProject(String project) {
+		this.project = project;
+	}
+
+	public Long getMrId() {
+		return mrId;
+	}
+
+	public void setMrId(Long mrId) {
+		this.mrId = mrId;
+	}
+
+	public String getAssignee() {
+		return assignee;
+	}
+
+	public void setAssignee(String assignee) {
+		this.assignee = assignee;
+	}
+
+	public String getAssigneeEmail() {
+		return assigneeEmail;
+	}
+
+	public void setAssigneeEmail(String assigneeEmail) {
+		this.assigneeEmail = assigneeEmail;
+	}
+
+	public Long getLastAssignmentId() {
+		return lastAssignmentId;
+	}
+
+	public void setLastAssignmentId(Long lastAssignmentId) {
+		this.lastAssignmentId = lastAssignmentId;
+	}
+
+	public Date getAssignedAt() {
+		if (assignedAt == null) {
+			return null;
+		}
+		return new Date(assignedAt.getTime());
+	}
+
+	public void setAssignedAt(Date assignedAt) {
+		if (assignedAt == null) {
+			this.assignedAt = null;
+		} else {
+			this.assignedAt = new Date(assignedAt.getTime());
+		}
+	}
+
+	/**
+	 * Hours since assignment the reminder is sent at, recorded as the MR's last reminder once it is sent.
+	 * @return
+	 */
+	public Long getReminderSentAt() {
+		return reminderSentAt;
+	}
+
+	public void setReminderSentAt(Long reminderSentAt) {
+		this.reminderSentAt = reminderSentAt;
+	}
+
+	public Date getCreatedAt() {
+		if (createdAt == null) {
+			return null;
+		}
+		return new Date(createdAt.getTime());
+	}
+
+	public void setCreatedAt(Date createdAt) {
+		if (createdAt == null) {
+			this.createdAt = null;
+		} else {
+			this.createdAt = new Date(createdAt.getTime());
+		}
+	}
+
+	@PrePersist
+	public void updateTimeStamps() {
+		createdAt = new Date();
+	}
+
+	/**
+	 * Primary key of a pending notification: the MR's id and the assignee's GitLab username.
+	 */
+	public static class Key implements Serializable {
+
+		private Long id;
+		private String assigneeUsername;
+
+		public Key() {
+			// empty constructor
+		}
+
+		public Key(Long id, String assigneeUsername) {
+			this.id = id;
+			this.assigneeUsername = assigneeUsername;
+		}
+
+		public Long getId() {
+			return id;
+		}
+
+		public String getAssigneeUsername() {
+			return assigneeUsername;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) o;
+			return Objects.equals(id, other.id) && Objects.equals(assigneeUsername, other.assigneeUsername);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(id, assigneeUsername);
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package com.mcs.mergeminder.dto;
+
+import java.util.Date;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+@Entity(name = "ShardLeases")
+public class ShardLeaseModel {
+
+	@Id
+	private Integer shard;
+	private String owner;
+	private Date expiresAt;
+
+	public ShardLeaseModel() {
+		// empty constructor
+	}
+
+	public ShardLeaseModel(Integer shard) {
+		this.shard = shard;
+	}
+
+	public Integer getShard() {
+		return shard;
+	}
+
+	public void setShard(Integer shard) {
+		this.shard = shard;
+	}
+
+	/**
+	 * The node minding the projects of this shard, null if no node has claimed it.
+	 * @return
+	 */
+	public String getOwner() {
+		return owner;
+	}
+
+	public void setOwner(String owner) {
+		this.owner = owner;
+	}
+
+	/**
+	 * When the owner's lease runs out unless it is renewed.  Any node may claim the shard after that.
+	 * @return
+	 */
+	public Date getExpiresAt() {
+		if (expiresAt == null) {
+			return null;
+		}
+		return new Date(expiresAt.getTime());
+	}
+
+	public void setExpiresAt(Date expiresAt) {
+		if (expiresAt == null) {
+			this.expiresAt = null;
+		} else {
+			this.expiresAt = new Date(expiresAt.getTime());
+		}
+	}
+}
@@ -0,0 +1,17 @@
+package com.mcs.mergeminder.exception;
+
+/**
+ * Thrown instead of making a call to an external service whose circuit is open or whose bulkhead is full.
+ */
+public class CallNotPermittedException extends RuntimeException {
+
+	/**
+	 *
+	 */
+	private static final long serialVersionUID = 1L;
+
+	public CallNotPermittedException(String message) {
+		super(message);
+	}
+
+}
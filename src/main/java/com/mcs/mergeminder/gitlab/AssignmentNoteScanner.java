@@ -0,0 +1,94 @@
+package com.mcs.mergeminder.gitlab;
+
+import java.util.List;
+
+import org.gitlab4j.api.GitLabApiException;
+import org.gitlab4j.api.models.Note;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.mcs.mergeminder.properties.GitlabProperties;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Finds the most recent assignment of a merge request by paging through its notes newest first.  The scan stops
+ * at the first "assigned to" note, so only the pages newer than the last assignment are ever fetched, no matter
+ * how many comments the MR has collected.  Pages are fetched through the {@link GitlabRestClient}, so the pages of quiet
+ * MRs come back as <tt>304 Not Modified</tt>.
+ */
+@Component
+public class AssignmentNoteScanner {
+
+	private static final Logger logger = LoggerFactory.getLogger(AssignmentNoteScanner.class);
+
+	private final GitlabProperties gitlabProperties;
+	private final GitlabRestClient gitlabRestClient;
+	private final DistributionSummary pagesPerScan;
+
+	public AssignmentNoteScanner(GitlabProperties gitlabProperties, GitlabRestClient gitlabRestClient, MeterRegistry meterRegistry) {
+		this.gitlabProperties = gitlabProperties;
+		this.gitlabRestClient = gitlabRestClient;
+		this.pagesPerScan = DistributionSummary.builder("mergeminder.gitlab.notes.pages")
+			.description("Pages of notes fetched to find the last assignment of an MR")
+			.register(meterRegistry);
+	}
+
+	/**
+	 * Returns the most recent assignment note of the MR.
+	 *
+	 * @param projectId
+	 * @param mrIid
+	 * @return the most recent assignment note, or null if the MR was never (re)assigned.
+	 * @throws GitLabApiException
+	 */
+	public Note findLastAssignment(Long projectId, Long mrIid) throws GitLabApiException {
+		int pageSize = gitlabProperties.getNotesPageSize();
+		int pagesFetched = 0;
+		Note lastAssignment = null;
+		try {
+			List<Note> notes;
+			do {
+				notes = gitlabRestClient.getMergeRequestNotes(projectId, mrIid, pagesFetched + 1, pageSize);
+				pagesFetched++;
+				lastAssignment = findAssignment(notes);
+			} while (lastAssignment == null && notes.size() >= pageSize);
+		} finally {
+			this.pagesPerScan.record(pagesFetched);
+		}
+		logger.debug("MR!{}: Scanned {} page(s) of notes, {} assignment.", mrIid, pagesFetched, lastAssignment == null ? "found no" : "found the last");
+		return lastAssignment;
+	}
+
+	/**
+	 * Checks if the note is the system note GitLab adds when an MR is assigned.
+	 *
+	 * @param note
+	 * @return
+	 */
+	public static boolean isAssignmentNote(Note note) {
+		return note != null && note.getBody() != null && note.getBody().toLowerCase().startsWith("assigned to");
+	}
+
+	/**
+	 * Parse a page of notes and return the most recent assignment.
+	 *
+	 * @param notes List of {@link Note}.  Assumes these are in descending order of create date.
+	 * @return the most recent assignment note on the page, or null if none was found.
+	 */
+	private Note findAssignment(List<Note> notes) {
+		if (notes == null) {
+			return null;
+		}
+		for (Note note : notes) {
+			if (isAssignmentNote(note)) {
+				// this is an assignment.  Since the notes are ordered by create date desc, this is the most recent assignment.
+				return note;
+			}
+			logger.debug("Note: {}, at {}", note.getBody(), note.getCreatedAt());
+		}
+		return null;
+	}
+}
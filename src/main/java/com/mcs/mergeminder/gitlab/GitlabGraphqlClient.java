@@ -0,0 +1,245 @@
+package com.mcs.mergeminder.gitlab;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.gitlab4j.api.GitLabApiException;
+import org.gitlab4j.api.models.Assignee;
+import org.gitlab4j.api.models.Author;
+import org.gitlab4j.api.models.MergeRequest;
+import org.gitlab4j.api.models.Note;
+import org.gitlab4j.api.models.References;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.mcs.mergeminder.exception.CallNotPermittedException;
+import com.mcs.mergeminder.properties.GitlabProperties;
+
+/**
+ * Fetches a project's open MRs from GitLab's GraphQL API.  Each page of MRs comes back from a single query together
+ * with its authors, assignees and latest notes, where the REST API needs a notes listing for every MR on top of the
+ * MR listing itself.
+ */
+@Component
+public class GitlabGraphqlClient {
+
+	private static final Logger logger = LoggerFactory.getLogger(GitlabGraphqlClient.class);
+
+	static final String OPEN_MERGE_REQUESTS_QUERY = """
+		query($ids: [ID!], $first: Int, $after: String, $notes: Int, $draft: Boolean, $targetBranches: [String!]) {
+		  projects(ids: $ids) {
+		    nodes {
+		      mergeRequests(state: opened, draft: $draft, targetBranches: $targetBranches, first: $first, after: $after) {
+		        pageInfo { hasNextPage endCursor }
+		        nodes {
+		          id iid title webUrl state draft createdAt updatedAt sourceBranch targetBranch
+		          reference(full: true)
+		          labels { nodes { title } }
+		          author { id username name }
+		          assignees { nodes { id username name } }
+		          notes(last: $notes) {
+		            pageInfo { hasPreviousPage }
+		            nodes { id body system createdAt }
+		          }
+		        }
+		      }
+		    }
+		  }
+		}
+		""";
+
+	/* Status of failures that did not come with an HTTP response, same as GitLabApiException uses. */
+	private static final int NO_HTTP_STATUS = 0;
+
+	private final GitlabProperties gitlabProperties;
+	private final RestTemplate restTemplate;
+	private final String graphqlUrl;
+
+	public GitlabGraphqlClient(GitlabProperties gitlabProperties, RestTemplateBuilder restTemplateBuilder, GitlabRateLimiter rateLimiter) {
+		this.gitlabProperties = gitlabProperties;
+		this.restTemplate = restTemplateBuilder
+			.defaultHeader("Authorization", "Bearer " + gitlabProperties.getAccesstoken())
+			.additionalInterceptors(rateLimiter)
+			.setConnectTimeout(Duration.ofMillis(gitlabProperties.getConnectTimeoutMillis()))
+			.setReadTimeout(Duration.ofMillis(gitlabProperties.getReadTimeoutMillis()))
+			.build();
+		this.graphqlUrl = StringUtils.removeEnd(gitlabProperties.getUrl(), "/") + "/api/graphql";
+	}
+
+	/**
+	 * Lists the open MRs of a project, one query per page of <tt>mm.gitlab.mergeRequestsPageSize</tt> MRs.
+	 *
+	 * @param projectId GitLab project id
+	 * @param draft false to leave out drafts, true for drafts only, null for both
+	 * @param targetBranches only MRs targeting one of these branches, null for any branch
+	 * @return
+	 * @throws GitLabApiException if the query fails, or with a 404 status if GitLab does not know the project.
+	 */
+	public List<FetchedMergeRequest> getOpenMergeRequests(Long projectId, Boolean draft, List<String> targetBranches) throws GitLabApiException {
+		List<FetchedMergeRequest> mergeRequests = new ArrayList<>();
+		Map<String, Object> variables = new HashMap<>();
+		variables.put("ids", List.of("gid://gitlab/Project/" + projectId));
+		variables.put("first", gitlabProperties.getMergeRequestsPageSize());
+		variables.put("notes", gitlabProperties.getNotesPageSize());
+		variables.put("draft", draft);
+		variables.put("targetBranches", targetBranches);
+		String after = null;
+		int pages = 0;
+		do {
+			variables.put("after", after);
+			JsonNode projects = query(OPEN_MERGE_REQUESTS_QUERY, variables).path("projects").path("nodes");
+			if (projects.isEmpty()) {
+				throw new GitLabApiException("Project " + projectId + " not found.", 404);
+			}
+			JsonNode connection = projects.get(0).path("mergeRequests");
+			for (JsonNode node : connection.path("nodes")) {
+				mergeRequests.add(toFetchedMergeRequest(projectId, node));
+			}
+			pages++;
+			JsonNode pageInfo = connection.path("pageInfo");
+			after = pageInfo.path("hasNextPage").asBoolean(false) ? pageInfo.path("endCursor").asText(null) : null;
+		} while (after != null);
+		logger.debug("Project {}: {} open MR(s) in {} GraphQL page(s).", projectId, mergeRequests.size(), pages);
+		return mergeRequests;
+	}
+
+	/**
+	 * Runs a query and returns its <tt>data</tt>.
+	 *
+	 * @param query
+	 * @param variables
+	 * @return
+	 * @throws GitLabApiException if the request fails or GitLab reports errors for the query.
+	 */
+	JsonNode query(String query, Map<String, Object> variables) throws GitLabApiException {
+		Map<String, Object> request = new HashMap<>();
+		request.put("query", query);
+		request.put("variables", variables);
+		JsonNode response;
+		try {
+			response = restTemplate.postForObject(graphqlUrl, request, JsonNode.class);
+		} catch (RestClientResponseException e) {
+			throw new GitLabApiException("GraphQL request failed: " + e.getMessage(), e.getStatusCode().value());
+		} catch (CallNotPermittedException e) {
+			throw new GitLabApiException(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE.value());
+		} catch (RestClientException e) {
+			throw new GitLabApiException("GraphQL request failed: " + e.getMessage(), NO_HTTP_STATUS);
+		}
+		if (response == null) {
+			throw new GitLabApiException("GraphQL request returned no response.", NO_HTTP_STATUS);
+		}
+		if (response.path("errors").size() > 0) {
+			throw new GitLabApiException("GraphQL query failed: " + response.path("errors").get(0).path("message").asText(), NO_HTTP_STATUS);
+		}
+		return response.path("data");
+	}
+
+	private FetchedMergeRequest toFetchedMergeRequest(Long projectId, JsonNode node) {
+		MergeRequest mr = new MergeRequest();
+		mr.setId(toId(node.path("id")));
+		mr.setIid(node.path("iid").asLong());
+		mr.setProjectId(projectId);
+		mr.setTitle(node.path("title").asText());
+		mr.setWebUrl(node.path("webUrl").asText());
+		mr.setState(node.path("state").asText());
+		mr.setWorkInProgress(node.path("draft").asBoolean(false));
+		mr.setCreatedAt(toDate(node.path("createdAt")));
+		mr.setUpdatedAt(toDate(node.path("updatedAt")));
+		mr.setSourceBranch(node.path("sourceBranch").asText(null));
+		mr.setTargetBranch(node.path("targetBranch").asText(null));
+		References references = new References();
+		references.setFull(node.path("reference").asText(null));
+		mr.setReferences(references);
+		List<String> labels = new ArrayList<>();
+		node.path("labels").path("nodes").forEach(label -> labels.add(label.path("title").asText()));
+		mr.setLabels(labels);
+		Author author = new Author();
+		author.setId(toId(node.path("author").path("id")));
+		author.setUsername(node.path("author").path("username").asText(null));
+		author.setName(node.path("author").path("name").asText(null));
+		mr.setAuthor(author);
+		List<Assignee> assignees = new ArrayList<>();
+		for (JsonNode assigneeNode : node.path("assignees").path("nodes")) {
+			Assignee assignee = new Assignee();
+			assignee.setId(toId(assigneeNode.path("id")));
+			assignee.setUsername(assigneeNode.path("username").asText());
+			assignee.setName(assigneeNode.path("name").asText());
+			assignees.add(assignee);
+		}
+		mr.setAssignees(assignees);
+
+		// notes come oldest first, the last assignment is the last assignment note of the page.
+		Note lastAssignment = null;
+		for (JsonNode noteNode : node.path("notes").path("nodes")) {
+			Note note = new Note();
+			note.setId(toId(noteNode.path("id")));
+			note.setBody(noteNode.path("body").asText());
+			note.setSystem(noteNode.path("system").asBoolean(false));
+			note.setCreatedAt(toDate(noteNode.path("createdAt")));
+			if (AssignmentNoteScanner.isAssignmentNote(note)) {
+				lastAssignment = note;
+			}
+		}
+		boolean allNotesFetched = !node.path("notes").path("pageInfo").path("hasPreviousPage").asBoolean(false);
+		return new FetchedMergeRequest(mr, lastAssignment, allNotesFetched);
+	}
+
+	/**
+	 * GraphQL ids are global ids like "gid://gitlab/MergeRequest/99".  The number at the end is the REST id.
+	 */
+	private static Long toId(JsonNode gid) {
+		String id = StringUtils.substringAfterLast(gid.asText(), "/");
+		return StringUtils.isNumeric(id) ? Long.valueOf(id) : null;
+	}
+
+	private static Date toDate(JsonNode date) {
+		return date.isTextual() ? Date.from(OffsetDateTime.parse(date.asText()).toInstant()) : null;
+	}
+
+	/**
+	 * An open MR together with its last assignment, as far as the notes returned with it go.
+	 */
+	public static class FetchedMergeRequest {
+
+		private final MergeRequest mergeRequest;
+		private final Note lastAssignment;
+		private final boolean allNotesFetched;
+
+		FetchedMergeRequest(MergeRequest mergeRequest, Note lastAssignment, boolean allNotesFetched) {
+			this.mergeRequest = mergeRequest;
+			this.lastAssignment = lastAssignment;
+			this.allNotesFetched = allNotesFetched;
+		}
+
+		public MergeRequest getMergeRequest() {
+			return mergeRequest;
+		}
+
+		/**
+		 * @return the last assignment note, or null if none was among the notes returned with the MR.
+		 */
+		public Note getLastAssignment() {
+			return lastAssignment;
+		}
+
+		/**
+		 * @return true if the MR has no notes beyond those returned with it, so a missing assignment note really is missing.
+		 */
+		public boolean isAllNotesFetched() {
+			return allNotesFetched;
+		}
+	}
+}
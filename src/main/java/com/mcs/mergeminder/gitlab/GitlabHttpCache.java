@@ -0,0 +1,189 @@
+package com.mcs.mergeminder.gitlab;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import com.mcs.mergeminder.properties.GitlabProperties;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Bounded cache of GitLab GET responses, keyed by URL and validated with ETags.  A cached response's ETag is sent
+ * as <tt>If-None-Match</tt>, and when GitLab answers <tt>304 Not Modified</tt> the cached body is handed back instead,
+ * so nothing but headers crosses the wire for resources that have not changed.
+ */
+@Component
+public class GitlabHttpCache implements ClientHttpRequestInterceptor, MeterBinder {
+
+	private static final Logger logger = LoggerFactory.getLogger(GitlabHttpCache.class);
+
+	private final int maxEntries;
+	private final Map<String, CachedResponse> responses;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong bytesSaved = new AtomicLong();
+
+	public GitlabHttpCache(GitlabProperties gitlabProperties) {
+		this.maxEntries = gitlabProperties.getHttpCacheMaxEntries();
+		this.responses = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+				return size() > maxEntries;
+			}
+		});
+	}
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+		if (this.maxEntries <= 0 || !HttpMethod.GET.equals(request.getMethod())) {
+			return execution.execute(request, body);
+		}
+		String key = request.getURI().toString();
+		CachedResponse cached = this.responses.get(key);
+		if (cached != null) {
+			request.getHeaders().setIfNoneMatch(cached.etag);
+		}
+		ClientHttpResponse response = execution.execute(request, body);
+		if (cached != null && response.getStatusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+			response.close();
+			this.hits.incrementAndGet();
+			this.bytesSaved.addAndGet(cached.body.length);
+			logger.debug("Not modified, serving {} from the cache.", key);
+			return cached.toResponse();
+		}
+		this.misses.incrementAndGet();
+		String etag = response.getHeaders().getETag();
+		if (!response.getStatusCode().is2xxSuccessful() || etag == null) {
+			if (cached != null) {
+				this.responses.remove(key);
+			}
+			return response;
+		}
+		CachedResponse fresh;
+		try (response) {
+			HttpHeaders headers = new HttpHeaders();
+			headers.putAll(response.getHeaders());
+			fresh = new CachedResponse(etag, response.getStatusCode(), headers, StreamUtils.copyToByteArray(response.getBody()));
+		}
+		this.responses.put(key, fresh);
+		return fresh.toResponse();
+	}
+
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	public long getMisses() {
+		return this.misses.get();
+	}
+
+	public long getBytesSaved() {
+		return this.bytesSaved.get();
+	}
+
+	/**
+	 * @return share of GET requests that were answered from the cache, 0 if there were none yet.
+	 */
+	public double getHitRatio() {
+		long hitCount = getHits();
+		long total = hitCount + getMisses();
+		return total == 0 ? 0 : (double) hitCount / total;
+	}
+
+	public int size() {
+		return this.responses.size();
+	}
+
+	public void clear() {
+		this.responses.clear();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("mergeminder.gitlab.http.cache", this, GitlabHttpCache::getHits)
+			.tag("result", "hit")
+			.description("GitLab GET requests answered with 304 Not Modified and served from the cache")
+			.register(registry);
+		FunctionCounter.builder("mergeminder.gitlab.http.cache", this, GitlabHttpCache::getMisses)
+			.tag("result", "miss")
+			.description("GitLab GET requests that returned a full response")
+			.register(registry);
+		FunctionCounter.builder("mergeminder.gitlab.http.cache.bytes.saved", this, GitlabHttpCache::getBytesSaved)
+			.description("Response body bytes GitLab did not have to send because the cached copy was still current")
+			.baseUnit("bytes")
+			.register(registry);
+		Gauge.builder("mergeminder.gitlab.http.cache.hit.ratio", this, GitlabHttpCache::getHitRatio)
+			.description("Share of GitLab GET requests served from the cache")
+			.register(registry);
+		Gauge.builder("mergeminder.gitlab.http.cache.size", this, GitlabHttpCache::size)
+			.description("Number of GitLab responses currently cached")
+			.register(registry);
+	}
+
+	private static class CachedResponse {
+		private final String etag;
+		private final HttpStatusCode status;
+		private final HttpHeaders headers;
+		private final byte[] body;
+
+		CachedResponse(String etag, HttpStatusCode status, HttpHeaders headers, byte[] body) {
+			this.etag = etag;
+			this.status = status;
+			this.headers = headers;
+			this.body = body;
+		}
+
+		ClientHttpResponse toResponse() {
+			return new ClientHttpResponse() {
+				@Override
+				public HttpStatusCode getStatusCode() {
+					return status;
+				}
+
+				@Override
+				public String getStatusText() {
+					return status instanceof HttpStatus httpStatus ? httpStatus.getReasonPhrase() : "";
+				}
+
+				@Override
+				public HttpHeaders getHeaders() {
+					return headers;
+				}
+
+				@Override
+				public InputStream getBody() {
+					return new ByteArrayInputStream(body);
+				}
+
+				@Override
+				public void close() {
+					// nothing to release, the body is held in memory.
+				}
+			};
+		}
+	}
+}
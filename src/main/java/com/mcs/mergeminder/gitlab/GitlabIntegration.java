@@ -1,14 +1,19 @@
 package com.mcs.mergeminder.gitlab;
 
 import com.mcs.mergeminder.dto.MergeRequestAssignmentInfo;
+import com.mcs.mergeminder.dto.MinderProjectsModel;
 import com.mcs.mergeminder.exception.GitlabIntegrationException;
 import com.mcs.mergeminder.properties.GitlabProperties;
+import com.mcs.mergeminder.util.DaemonExecutors;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.apache.commons.lang3.StringUtils;
 import org.gitlab4j.api.Constants;
 import org.gitlab4j.api.GitLabApi;
 import org.gitlab4j.api.GitLabApiException;
+import org.gitlab4j.api.Pager;
 import org.gitlab4j.api.models.MergeRequest;
+import org.gitlab4j.api.models.MergeRequestFilter;
 import org.gitlab4j.api.models.Note;
 import org.gitlab4j.api.models.Project;
 import org.gitlab4j.api.models.User;
@@ -20,8 +25,19 @@ import org.springframework.util.CollectionUtils;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 @Configuration
 public class GitlabIntegration {
@@ -29,11 +45,33 @@ public class GitlabIntegration {
 	private Logger log = LoggerFactory.getLogger(GitlabIntegration.class);
 
 	private final GitlabProperties gitlabProperties;
+	private final GitlabUserCache userCache;
+	private final AssignmentNoteScanner assignmentNoteScanner;
+	private final GitlabGraphqlClient graphqlClient;
+	private final GitlabRateLimiter rateLimiter;
+	private final GitlabRestClient restClient;
+	private final MergeRequestFilterEngine filterEngine;
+
+	/* Per-project state for incremental polling, keyed by GitLab project id. */
+	private final Map<Long, MergeRequestPollState> pollStates = new ConcurrentHashMap<>();
+	/* GitLab group ids of the namespaces that are fetched at the group level, keyed by full path. */
+	private final Map<String, Long> groupIds = new ConcurrentHashMap<>();
+	/* Runs the notes and user lookups of MRs concurrently, shared by all projects. */
+	private final ExecutorService enrichmentExecutor;
 
 	private GitLabApi gitLabApi;
 
-	public GitlabIntegration(GitlabProperties gitlabProperties) {
+	public GitlabIntegration(GitlabProperties gitlabProperties, GitlabUserCache userCache, AssignmentNoteScanner assignmentNoteScanner,
+		GitlabGraphqlClient graphqlClient, GitlabRateLimiter rateLimiter, GitlabRestClient restClient,
+		MergeRequestFilterEngine filterEngine) {
 		this.gitlabProperties = gitlabProperties;
+		this.userCache = userCache;
+		this.assignmentNoteScanner = assignmentNoteScanner;
+		this.graphqlClient = graphqlClient;
+		this.rateLimiter = rateLimiter;
+		this.restClient = restClient;
+		this.filterEngine = filterEngine;
+		this.enrichmentExecutor = DaemonExecutors.newExecutor("gitlab-enrichment-", gitlabProperties.getEnrichmentThreads());
 	}
 
 	@PostConstruct
@@ -41,111 +79,458 @@ public class GitlabIntegration {
 		log.info("Connecting to GitLab.");
 		// Create a GitLabApi instance to communicate with your GitLab server
 		gitLabApi = new GitLabApi(gitlabProperties.getUrl(), gitlabProperties.getAccesstoken());
+		gitLabApi.setRequestTimeout(gitlabProperties.getConnectTimeoutMillis(), gitlabProperties.getReadTimeoutMillis());
 		gitLabApi.getVersion();
 		log.info("GitLab connection successful.");
 	}
 
 	/**
-	 * Goes to gitlab, scrapes open MRs, and creates a list of {@link MergeRequestAssignmentInfo} objects.
+	 * Looks up the numeric GitLab id of a project by its path.
 	 *
 	 * @param namespace
 	 * @param projectName
 	 * @return
 	 * @throws GitLabApiException
 	 */
-	public Collection<MergeRequestAssignmentInfo> getMergeRequestInfoForProject(String namespace, String projectName) throws GitLabApiException {
-		Project project = gitLabApi.getProjectApi().getProject(namespace, projectName);
+	public Long resolveProjectId(String namespace, String projectName) throws GitLabApiException {
+		Project project = rateLimiter.call(() -> gitLabApi.getProjectApi().getProject(namespace, projectName));
 		if (project == null) {
 			log.error("Could not load project {}/{}", namespace, projectName);
 			return null;
 		}
+		return project.getId();
+	}
+
+	/**
+	 * Goes to gitlab, scrapes open MRs, and creates a list of {@link MergeRequestAssignmentInfo} objects.  Uses the API
+	 * selected by <tt>mm.gitlab.backend</tt>.
+	 *
+	 * @param projectId GitLab project id
+	 * @param namespace
+	 * @param projectName
+	 * @return
+	 * @throws GitLabApiException
+	 */
+	public Collection<MergeRequestAssignmentInfo> getMergeRequestInfoForProject(Long projectId, String namespace, String projectName) throws GitLabApiException {
+		if (gitlabProperties.getBackend() == GitlabProperties.Backend.GRAPHQL) {
+			return getMergeRequestInfoWithGraphql(projectId, namespace, projectName);
+		}
+		if (gitlabProperties.getIncrementalPolling()) {
+			return getMergeRequestInfoIncrementally(projectId, namespace, projectName);
+		}
 		// Get open MRs
-		List<MergeRequest> mergeRequests = gitLabApi.getMergeRequestApi().getMergeRequests(project.getId(), Constants.MergeRequestState.OPENED);
+		List<MergeRequest> mergeRequests = mindedOnly(rateLimiter.call(() -> gitLabApi.getMergeRequestApi().getMergeRequests(openMergeRequestsFilter(projectId))));
 		List<MergeRequestAssignmentInfo> assignmentInfoList = new ArrayList<>();
 		// Populate the AssignmentInfo object for each MR
-		for (MergeRequest mr : mergeRequests) {
-			String title = mr.getTitle();
-			Long mrId = mr.getIid();
-			if (ignoreMergeRequest(mr)) {
-				log.debug("MR!{}: {} ignored because it contains label that's ignored ( mm.gitlab.ignoredByLabels )", mrId, title);
-				continue;
+		for (List<MergeRequestAssignmentInfo> mrAssignments : enrichConcurrently(mergeRequests,
+			mr -> getAssignmentInfo(projectId, mr, namespace, projectName))) {
+			if (mrAssignments != null) {
+				assignmentInfoList.addAll(mrAssignments);
+			}
+		}
+
+		return assignmentInfoList;
+	}
+
+	/**
+	 * Looks up a single MR of a project and creates its {@link MergeRequestAssignmentInfo} objects, ie. when one of its
+	 * reminders comes due.
+	 *
+	 * @param projectId GitLab project id
+	 * @param mrIid
+	 * @param namespace
+	 * @param projectName
+	 * @return the assignment info for the MR.  Empty if the MR is no longer open, is not minded or is not assigned.
+	 * @throws GitLabApiException
+	 */
+	public List<MergeRequestAssignmentInfo> getMergeRequestInfo(Long projectId, Long mrIid, String namespace, String projectName) throws GitLabApiException {
+		MergeRequest mr = rateLimiter.call(() -> gitLabApi.getMergeRequestApi().getMergeRequest(projectId, mrIid));
+		if (mr == null || !Constants.MergeRequestState.OPENED.toString().equals(mr.getState()) || ignoreMergeRequest(mr)) {
+			return List.of();
+		}
+		return getAssignmentInfo(projectId, mr, namespace, projectName);
+	}
+
+	/**
+	 * GraphQL version of {@link #getMergeRequestInfoForProject(Long, String, String)}.  Each page of open MRs is one
+	 * query that also returns the MRs' latest notes, so the notes only have to be scanned over REST for MRs whose last
+	 * assignment is older than those notes.  Authors and assignees still go through the user cache for their emails.
+	 *
+	 * @param projectId
+	 * @param namespace
+	 * @param projectName
+	 * @return
+	 * @throws GitLabApiException
+	 */
+	private Collection<MergeRequestAssignmentInfo> getMergeRequestInfoWithGraphql(Long projectId, String namespace, String projectName) throws GitLabApiException {
+		List<MergeRequestAssignmentInfo> assignmentInfoList = new ArrayList<>();
+		List<GitlabGraphqlClient.FetchedMergeRequest> mergeRequests = new ArrayList<>();
+		for (GitlabGraphqlClient.FetchedMergeRequest fetched : graphqlClient.getOpenMergeRequests(projectId, filterEngine.getDraftArgument(),
+			filterEngine.getTargetBranchesArgument())) {
+			if (!ignoreMergeRequest(fetched.getMergeRequest())) {
+				mergeRequests.add(fetched);
+			}
+		}
+		for (List<MergeRequestAssignmentInfo> mrAssignments : enrichConcurrently(mergeRequests, fetched -> {
+			MergeRequest mr = fetched.getMergeRequest();
+			Note lastAssignment = fetched.getLastAssignment();
+			if (lastAssignment == null && !fetched.isAllNotesFetched()) {
+				lastAssignment = assignmentNoteScanner.findLastAssignment(projectId, mr.getIid());
 			}
-			log.debug("MR!{}: {}", mrId, title);
-			// Assignment events are in "notes"
-			List<Note> notes = gitLabApi.getNotesApi().getMergeRequestNotes(project.getId(), mr.getIid(), Constants.SortOrder.DESC, Note.OrderBy.CREATED_AT);
-			Note lastAssignment = getLastAssignment(notes);
-			if (mr.getAssignees() == null || CollectionUtils.isEmpty(mr.getAssignees())) {
-				log.info("[{}/{}] MR!{} is not assigned.  Nothing to mind.", namespace, projectName, mrId);
+			return toAssignmentInfo(mr, lastAssignment, namespace, projectName);
+		})) {
+			if (mrAssignments != null) {
+				assignmentInfoList.addAll(mrAssignments);
+			}
+		}
+		return assignmentInfoList;
+	}
+
+	/**
+	 * Fetches the open MRs of every minded project in a namespace with the group merge requests endpoint, one paged
+	 * listing for the whole group instead of one listing per project.  MRs are handed to the minded project they belong
+	 * to, MRs of projects in the group that are not minded are skipped without any further calls.
+	 *
+	 * @param namespace the group's full path
+	 * @param projectsById minded projects of the namespace, keyed by GitLab project id
+	 * @return assignment info keyed by GitLab project id.  Every requested project has an entry, even if it has no open MRs.
+	 * @throws GitLabApiException
+	 */
+	public Map<Long, List<MergeRequestAssignmentInfo>> getMergeRequestInfoForGroup(String namespace, Map<Long, MinderProjectsModel> projectsById) throws GitLabApiException {
+		Long groupId = groupIds.get(namespace);
+		if (groupId == null) {
+			groupId = rateLimiter.call(() -> gitLabApi.getGroupApi().getGroup(namespace)).getId();
+			groupIds.put(namespace, groupId);
+		}
+		Map<Long, List<MergeRequestAssignmentInfo>> assignmentInfoByProject = new HashMap<>();
+		projectsById.keySet().forEach(projectId -> assignmentInfoByProject.put(projectId, new ArrayList<>()));
+
+		MergeRequestFilter filter = filterEngine.pushDown(new MergeRequestFilter()
+			.withGroupId(groupId)
+			.withState(Constants.MergeRequestState.OPENED));
+		Pager<MergeRequest> pager = rateLimiter.call(() -> gitLabApi.getMergeRequestApi().getMergeRequests(filter, gitlabProperties.getMergeRequestsPageSize()));
+		int skipped = 0;
+		List<MergeRequest> mindedMergeRequests = new ArrayList<>();
+		while (pager.hasNext()) {
+			for (MergeRequest mr : rateLimiter.call(() -> Pagers.nextPage(pager))) {
+				if (!projectsById.containsKey(mr.getProjectId())) {
+					skipped++;
+				} else if (!ignoreMergeRequest(mr)) {
+					mindedMergeRequests.add(mr);
+				}
+			}
+		}
+		List<List<MergeRequestAssignmentInfo>> mrAssignments = enrichConcurrently(mindedMergeRequests, mr -> {
+			MinderProjectsModel project = projectsById.get(mr.getProjectId());
+			return getAssignmentInfo(mr.getProjectId(), mr, project.getNamespace(), project.getProject());
+		});
+		for (int i = 0; i < mindedMergeRequests.size(); i++) {
+			if (mrAssignments.get(i) != null) {
+				assignmentInfoByProject.get(mindedMergeRequests.get(i).getProjectId()).addAll(mrAssignments.get(i));
+			}
+		}
+		log.info("[{}] Group fetch: {} page(s) of MRs for {} minded project(s), skipped {} MR(s) of projects that are not minded.", namespace,
+			pager.getCurrentPage(), projectsById.size(), skipped);
+		return assignmentInfoByProject;
+	}
+
+	/**
+	 * Checks if MRs for projects in the namespace should be fetched at the group level.
+	 *
+	 * @param namespace
+	 * @return
+	 */
+	public boolean isGroupFetchEnabled(String namespace) {
+		return Optional.ofNullable(gitlabProperties.getGroupFetchNamespaces()).orElse(List.of())
+			.stream()
+			.anyMatch(groupNamespace -> StringUtils.equalsIgnoreCase(StringUtils.trim(groupNamespace), namespace));
+	}
+
+	/**
+	 * Incremental version of {@link #getMergeRequestInfoForProject(Long, String, String)}.  Only MRs that were updated since the
+	 * last poll of the project are requested from GitLab.  Assignment changes and new notes both bump an MR's
+	 * <tt>updated_at</tt>, so the assignment info computed for every other open MR is still accurate and is reused.
+	 * Every <tt>mm.gitlab.fullRefreshPolls</tt> polls, the project's open MRs are listed in full to pick up anything missed.
+	 *
+	 * @param projectId
+	 * @param namespace
+	 * @param projectName
+	 * @return
+	 * @throws GitLabApiException
+	 */
+	private Collection<MergeRequestAssignmentInfo> getMergeRequestInfoIncrementally(Long projectId, String namespace, String projectName) throws GitLabApiException {
+		MergeRequestPollState pollState = pollStates.computeIfAbsent(projectId, id -> new MergeRequestPollState());
+		synchronized (pollState) {
+			Date highWaterMark = pollState.getHighWaterMark();
+			boolean fullRefresh = highWaterMark == null || pollState.getPollsSinceFullRefresh() >= gitlabProperties.getFullRefreshPolls();
+			List<MergeRequest> mergeRequests;
+			if (fullRefresh) {
+				mergeRequests = rateLimiter.call(() -> gitLabApi.getMergeRequestApi().getMergeRequests(openMergeRequestsFilter(projectId)));
+				pollState.clear();
 			} else {
-				User author = gitLabApi.getUserApi().getUser(mr.getAuthor().getUsername());
-				// GitLab allows multiple assignees to a MR, allow for notifying each one.
-				for(Assignee user : mr.getAssignees() ) {
-					User assignee = gitLabApi.getUserApi().getUser(user.getUsername());
-					assignmentInfoList.add(new MergeRequestAssignmentInfo(mr, assignee, author, lastAssignment, namespace, projectName));
+				// No state or pushed down filters here, MRs that were merged, closed or excluded since the last poll need to be dropped.
+				MergeRequestFilter filter = new MergeRequestFilter()
+					.withProjectId(projectId)
+					.withUpdatedAfter(highWaterMark);
+				mergeRequests = rateLimiter.call(() -> gitLabApi.getMergeRequestApi().getMergeRequests(filter));
+			}
+			List<MergeRequest> openMergeRequests = new ArrayList<>();
+			for (MergeRequest mr : mergeRequests) {
+				if (!Constants.MergeRequestState.OPENED.toString().equals(mr.getState())) {
+					log.debug("[{}/{}] MR!{} is {}.  No longer minding it.", namespace, projectName, mr.getIid(), mr.getState());
+					pollState.remove(mr);
+				} else if (ignoreMergeRequest(mr)) {
+					pollState.remove(mr);
+				} else {
+					openMergeRequests.add(mr);
+				}
+			}
+			List<List<MergeRequestAssignmentInfo>> mrAssignments = enrichConcurrently(openMergeRequests,
+				mr -> getAssignmentInfo(projectId, mr, namespace, projectName));
+			for (int i = 0; i < openMergeRequests.size(); i++) {
+				if (mrAssignments.get(i) == null) {
+					pollState.failed(openMergeRequests.get(i));
+				} else {
+					pollState.update(openMergeRequests.get(i), mrAssignments.get(i));
 				}
 			}
+			pollState.pollComplete(fullRefresh);
+			log.info("[{}/{}] {} poll: {} MR(s) changed, {} open MR(s) known.", namespace, projectName, fullRefresh ? "Full" : "Incremental",
+				mergeRequests.size(), pollState.getOpenMergeRequestCount());
+			return pollState.getAssignmentInfo();
 		}
+	}
 
-		return assignmentInfoList;
+	/**
+	 * Drops everything remembered about a project's MRs.  The next poll of the project lists its open MRs in full.
+	 *
+	 * @param projectId GitLab project id
+	 */
+	public void forgetProject(Long projectId) {
+		if (projectId != null) {
+			pollStates.remove(projectId);
+		}
 	}
 
-	public boolean isMergeRequestMergedOrClosed(String fullyQualifiedProjectName, Long mrId) throws GitlabIntegrationException {
-		if (fullyQualifiedProjectName == null || mrId == null) {
-			return false;
+	/**
+	 * Builds the assignment info of each item on the enrichment executor, so the notes and user lookups of a
+	 * project's MRs overlap instead of running one after another.  At most <tt>mm.gitlab.enrichmentThreads</tt> MRs
+	 * are worked on at a time, across all projects.  An MR that fails is logged and skipped, the others are still
+	 * minded.
+	 *
+	 * @param items MRs to enrich
+	 * @param enricher builds the assignment info of a single MR
+	 * @return the assignment info of each item, in the order of the items.  <tt>null</tt> for the items that failed.
+	 * @throws GitLabApiException the first failure, if every item failed.
+	 */
+	private <T> List<List<MergeRequestAssignmentInfo>> enrichConcurrently(List<T> items, MergeRequestEnricher<T> enricher) throws GitLabApiException {
+		List<Callable<List<MergeRequestAssignmentInfo>>> tasks = new ArrayList<>();
+		for (T item : items) {
+			tasks.add(() -> enricher.enrich(item));
+		}
+		List<List<MergeRequestAssignmentInfo>> results = new ArrayList<>();
+		Throwable firstFailure = null;
+		try {
+			for (Future<List<MergeRequestAssignmentInfo>> future : enrichmentExecutor.invokeAll(tasks)) {
+				try {
+					results.add(future.get());
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof Error) {
+						throw (Error) e.getCause();
+					}
+					log.warn("Problem looking up a merge request, skipping it until the next poll.", e.getCause());
+					firstFailure = firstFailure == null ? e.getCause() : firstFailure;
+					results.add(null);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while enriching merge requests.", e);
+		}
+		if (firstFailure != null && results.stream().allMatch(Objects::isNull)) {
+			// nothing could be looked up, the project failed as a whole.
+			if (firstFailure instanceof GitLabApiException) {
+				throw (GitLabApiException) firstFailure;
+			}
+			throw (RuntimeException) firstFailure;
+		}
+		return results;
+	}
+
+	/**
+	 * Builds the {@link MergeRequestAssignmentInfo} objects for a single MR, one per assignee.
+	 *
+	 * @param projectId
+	 * @param mr
+	 * @param namespace
+	 * @param projectName
+	 * @return the assignment info for the MR.  Empty if the MR is ignored or not assigned.
+	 * @throws GitLabApiException
+	 */
+	private List<MergeRequestAssignmentInfo> getAssignmentInfo(Long projectId, MergeRequest mr, String namespace, String projectName) throws GitLabApiException {
+		log.debug("MR!{}: {}", mr.getIid(), mr.getTitle());
+		// Assignment events are in "notes"
+		Note lastAssignment = assignmentNoteScanner.findLastAssignment(projectId, mr.getIid());
+		return toAssignmentInfo(mr, lastAssignment, namespace, projectName);
+	}
+
+	/**
+	 * Pairs an MR and its last assignment with each of its assignees.
+	 *
+	 * @param mr
+	 * @param lastAssignment the MR's last assignment note, or null if it was never (re)assigned.
+	 * @param namespace
+	 * @param projectName
+	 * @return the assignment info for the MR.  Empty if the MR is not assigned.
+	 * @throws GitLabApiException
+	 */
+	private List<MergeRequestAssignmentInfo> toAssignmentInfo(MergeRequest mr, Note lastAssignment, String namespace, String projectName) throws GitLabApiException {
+		if (mr.getAssignees() == null || CollectionUtils.isEmpty(mr.getAssignees())) {
+			log.info("[{}/{}] MR!{} is not assigned.  Nothing to mind.", namespace, projectName, mr.getIid());
+			return List.of();
+		}
+		List<MergeRequestAssignmentInfo> assignmentInfoList = new ArrayList<>();
+		User author = getUser(mr.getAuthor().getUsername());
+		// GitLab allows multiple assignees to a MR, allow for notifying each one.
+		for(Assignee user : mr.getAssignees() ) {
+			User assignee = getUser(user.getUsername());
+			assignmentInfoList.add(new MergeRequestAssignmentInfo(mr, assignee, author, lastAssignment, namespace, projectName));
 		}
-		log.debug("Looking up MR: [{}] MR id: {}", fullyQualifiedProjectName, mrId);
+		return assignmentInfoList;
+	}
+
+	/**
+	 * Finds which of a project's MRs are merged or closed.  Instead of looking the MRs up one at a time, the project's
+	 * open MRs are listed by iid, <tt>mm.gitlab.mergeRequestsPageSize</tt> iids per request, and every MR that is not
+	 * listed is merged, closed or gone.
+	 *
+	 * @param fullyQualifiedProjectName
+	 * @param mrIids
+	 * @return
+	 * @throws GitlabIntegrationException
+	 */
+	public MergedOrClosedCheck findMergedOrClosed(String fullyQualifiedProjectName, Collection<Long> mrIids) throws GitlabIntegrationException {
+		List<Long> iids = new ArrayList<>(mrIids);
+		Set<Long> mergedOrClosed = new HashSet<>(iids);
+		int batchSize = Math.min(100, Math.max(1, gitlabProperties.getMergeRequestsPageSize()));
+		int requests = 0;
 		try {
-			MergeRequest mr = gitLabApi.getMergeRequestApi().getMergeRequest(fullyQualifiedProjectName, mrId);
-			if (Constants.MergeRequestState.CLOSED.toString().equals(mr.getState()) ||
-				Constants.MergeRequestState.MERGED.toString().equals(mr.getState())) {
-				return true;
+			for (int from = 0; from < iids.size(); from += batchSize) {
+				requests++;
+				restClient.getOpenMergeRequestIids(fullyQualifiedProjectName, iids.subList(from, Math.min(from + batchSize, iids.size())))
+					.forEach(mergedOrClosed::remove);
 			}
 		} catch (GitLabApiException ex) {
-			if (ex.getHttpStatus() == 404) {
-				log.debug("Cannot find this merge request.  Assuming it no longer exists!");
-				return true;
+			if (ex.getHttpStatus() != 404) {
+				throw new GitlabIntegrationException("Problem looking up merge requests of " + fullyQualifiedProjectName + ".");
 			}
-			throw new GitlabIntegrationException("Problem looking up merge request.");
+			log.debug("Cannot find project {}.  Assuming its merge requests no longer exist!", fullyQualifiedProjectName);
+			mergedOrClosed.addAll(iids);
 		}
+		return new MergedOrClosedCheck(mergedOrClosed, requests);
+	}
 
-		return false;
+	/**
+	 * Looks up a GitLab user by username, going through the shared user cache.
+	 *
+	 * @param username
+	 * @return
+	 * @throws GitLabApiException
+	 */
+	public User getUser(String username) throws GitLabApiException {
+		return userCache.getUser(username, () -> rateLimiter.call(() -> gitLabApi.getUserApi().getUser(username)));
+	}
+
+	/**
+	 * Checks if GitLab calls are currently being made, ie, the GitLab circuit breaker is not open.
+	 *
+	 * @return
+	 */
+	public boolean isAvailable() {
+		return !rateLimiter.isCircuitOpen();
+	}
+
+	/**
+	 * Gets the most GitLab requests that were in flight at once since the last call, and starts over.
+	 *
+	 * @return
+	 */
+	public int takePeakConcurrentRequests() {
+		return rateLimiter.takePeakActiveRequests();
+	}
+
+	/**
+	 * Logs the user cache hit/miss statistics.
+	 */
+	public void logUserCacheStatistics() {
+		log.info("GitLab user cache: {} user(s) cached, {} hit(s), {} miss(es).", userCache.size(), userCache.getHits(), userCache.getMisses());
 	}
 
+	@PreDestroy
+	private void shutdown() {
+		enrichmentExecutor.shutdownNow();
+	}
+
+	/**
+	 * Builds the assignment info of a single MR.
+	 */
+	@FunctionalInterface
+	private interface MergeRequestEnricher<T> {
+		List<MergeRequestAssignmentInfo> enrich(T item) throws GitLabApiException;
+	}
+
+	/**
+	 * Checks if an MR is excluded by the {@link MergeRequestFilterEngine}, so it is left out before any of its notes or
+	 * users are looked up.
+	 *
+	 * @param mergeRequest
+	 * @return
+	 */
 	private boolean ignoreMergeRequest(MergeRequest mergeRequest) {
-		List<String> mergeRequestLabels = Optional.ofNullable(mergeRequest.getLabels()).orElse(List.of());
-		boolean ignoreMergeRequest = false;
-		for (String label : mergeRequestLabels) {
-			ignoreMergeRequest = Optional.ofNullable(gitlabProperties.getIgnoredByLabels()).orElse(List.of())
-					.stream()
-					.filter(ignoreByLabel -> StringUtils.equalsIgnoreCase(StringUtils.trim(ignoreByLabel), StringUtils.trim(label)))
-					.map(match -> true)
-					.findAny()
-					.orElse(false);
-			if (ignoreMergeRequest) {
-				break;
+		return filterEngine.exclude(mergeRequest) != null;
+	}
+
+	private List<MergeRequest> mindedOnly(List<MergeRequest> mergeRequests) {
+		List<MergeRequest> minded = new ArrayList<>();
+		for (MergeRequest mr : mergeRequests) {
+			if (!ignoreMergeRequest(mr)) {
+				minded.add(mr);
 			}
 		}
+		return minded;
+	}
 
-		return ignoreMergeRequest;
+	private MergeRequestFilter openMergeRequestsFilter(Long projectId) {
+		return filterEngine.pushDown(new MergeRequestFilter()
+			.withProjectId(projectId)
+			.withState(Constants.MergeRequestState.OPENED));
 	}
 
 	/**
-	 * Parse all the notes for the MR and return the most recent assignment.
-	 *
-	 * @param notes List of {@link Note}.  Assumes these are in descending order of create date.
-	 * @return Date at which the most recent assignment took place, or null if none was found.
+	 * Outcome of {@link #findMergedOrClosed(String, Collection)}.
 	 */
-	private Note getLastAssignment(List<Note> notes) {
-		if (CollectionUtils.isEmpty(notes)) {
-			return null;
+	public static class MergedOrClosedCheck {
+
+		private final Set<Long> mergedOrClosedIids;
+		private final int requests;
+
+		MergedOrClosedCheck(Set<Long> mergedOrClosedIids, int requests) {
+			this.mergedOrClosedIids = mergedOrClosedIids;
+			this.requests = requests;
 		}
-		for (Note note : notes) {
-			if (note.getBody().toLowerCase().startsWith("assigned to")) {
-				// this is an assignment.  Since the notes are ordered by create date desc, this is the most recent assignment.
-				return note;
-			}
-			log.debug("Note: {}, at {}", note.getBody(), note.getCreatedAt());
+
+		/**
+		 * @return iids of the MRs that are merged, closed or no longer exist.
+		 */
+		public Set<Long> getMergedOrClosedIids() {
+			return mergedOrClosedIids;
+		}
+
+		/**
+		 * @return number of GitLab requests the check made.
+		 */
+		public int getRequests() {
+			return requests;
 		}
-		return null;
 	}
 }
@@ -0,0 +1,328 @@
+package com.mcs.mergeminder.gitlab;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import org.gitlab4j.api.GitLabApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import com.mcs.mergeminder.exception.CallNotPermittedException;
+import com.mcs.mergeminder.properties.GitlabProperties;
+import com.mcs.mergeminder.util.CircuitBreaker;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Token bucket shared by every call MergeMinder makes to GitLab.  The bucket refills at
+ * <tt>mm.gitlab.maxRequestsPerSecond</tt> until GitLab reports its own limit: every response carrying
+ * <tt>RateLimit-Remaining</tt> and <tt>RateLimit-Reset</tt> re-tunes the rate so the remaining requests are spread
+ * evenly until the window resets.  Throttled (429) and unavailable (503) responses are retried with jittered
+ * exponential backoff, or after <tt>Retry-After</tt> when GitLab sends one.
+ * <p>
+ * Every attempt also goes through the GitLab {@link CircuitBreaker}, after it got its token so calls waiting on the rate
+ * limit don't hold on to the bulkhead.  Connection failures, timeouts and 5xx responses count as failures, once the
+ * circuit opens calls fail right away with a 503 instead of waiting on GitLab.  Throttled responses are only backed
+ * off, GitLab is up and answering.
+ * <p>
+ * Calls through the gitlab4j client are wrapped with {@link #call(GitlabCall)}.  Its responses' headers can't be seen,
+ * so only the {@link org.springframework.web.client.RestTemplate} based clients, which use this as an interceptor,
+ * feed the rate back.
+ */
+@Component
+public class GitlabRateLimiter implements ClientHttpRequestInterceptor, MeterBinder {
+
+	private static final Logger logger = LoggerFactory.getLogger(GitlabRateLimiter.class);
+
+	static final String RATE_LIMIT_REMAINING = "RateLimit-Remaining";
+	static final String RATE_LIMIT_RESET = "RateLimit-Reset";
+	private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+	/* Never slow down below one request every ten seconds, GitLab's reset will catch up with us before that matters. */
+	private static final double MIN_REQUESTS_PER_SECOND = 0.1;
+
+	private final double maxRequestsPerSecond;
+	private final int maxRetries;
+	private final long retryBackoffMillis;
+
+	/* Requests per second the bucket currently refills at. */
+	private double rate;
+	/* Tokens in the bucket, negative when callers have reserved tokens that are not there yet. */
+	private double tokens;
+	private long lastRefillNanos = System.nanoTime();
+	/* No tokens are handed out before this time, set when GitLab says the window is used up. */
+	private long pausedUntilNanos;
+
+	private final CircuitBreaker circuitBreaker;
+
+	private final AtomicInteger waiting = new AtomicInteger();
+	private final AtomicInteger active = new AtomicInteger();
+	/* Most requests in flight at once since the peak was last taken. */
+	private final AtomicInteger peakActive = new AtomicInteger();
+	private final AtomicLong retries = new AtomicLong();
+	private final AtomicLong remaining = new AtomicLong(-1);
+
+	public GitlabRateLimiter(GitlabProperties gitlabProperties, @Qualifier("gitlabCircuitBreaker") CircuitBreaker circuitBreaker) {
+		this.circuitBreaker = circuitBreaker;
+		this.maxRequestsPerSecond = gitlabProperties.getMaxRequestsPerSecond();
+		this.maxRetries = gitlabProperties.getMaxRetries();
+		this.retryBackoffMillis = gitlabProperties.getRetryBackoffMillis();
+		this.rate = this.maxRequestsPerSecond;
+		// allow a second's worth of requests as a burst.
+		this.tokens = this.maxRequestsPerSecond;
+	}
+
+	/**
+	 * Makes a gitlab4j call once a token is available, retrying it if GitLab throttles it or is unavailable.
+	 *
+	 * @param call
+	 * @return what the call returned
+	 * @throws GitLabApiException if the call fails, or still fails after <tt>mm.gitlab.maxRetries</tt> retries.
+	 */
+	public <T> T call(GitlabCall<T> call) throws GitLabApiException {
+		for (int attempt = 0; ; attempt++) {
+			acquire();
+			acquirePermission();
+			try {
+				T result;
+				started();
+				try {
+					result = call.call();
+				} finally {
+					this.active.decrementAndGet();
+				}
+				this.circuitBreaker.onSuccess();
+				return result;
+			} catch (GitLabApiException e) {
+				if (isOutage(e.getHttpStatus())) {
+					this.circuitBreaker.onFailure();
+				} else {
+					this.circuitBreaker.onSuccess();
+				}
+				if (!isRetryable(e.getHttpStatus()) || attempt >= this.maxRetries) {
+					throw e;
+				}
+				backOff(attempt, null);
+			} catch (RuntimeException e) {
+				// gitlab4j reports connection failures and timeouts as runtime exceptions.
+				this.circuitBreaker.onFailure();
+				throw e;
+			}
+		}
+	}
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+		for (int attempt = 0; ; attempt++) {
+			acquire();
+			this.circuitBreaker.acquirePermission();
+			ClientHttpResponse response;
+			try {
+				started();
+				try {
+					response = execution.execute(request, body);
+				} finally {
+					this.active.decrementAndGet();
+				}
+			} catch (IOException | RuntimeException e) {
+				this.circuitBreaker.onFailure();
+				throw e;
+			}
+			update(response.getHeaders());
+			int status = response.getStatusCode().value();
+			if (isOutage(status)) {
+				this.circuitBreaker.onFailure();
+			} else {
+				this.circuitBreaker.onSuccess();
+			}
+			if (!isRetryable(status) || attempt >= this.maxRetries) {
+				return response;
+			}
+			String retryAfter = response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+			response.close();
+			backOff(attempt, retryAfter);
+		}
+	}
+
+	/**
+	 * Takes a token from the bucket, waiting until one is available.
+	 */
+	public void acquire() {
+		long waitNanos;
+		synchronized (this) {
+			long now = System.nanoTime();
+			refill(now);
+			this.tokens -= 1;
+			waitNanos = Math.max(this.tokens < 0 ? (long) (-this.tokens / this.rate * NANOS_PER_SECOND) : 0, this.pausedUntilNanos - now);
+		}
+		if (waitNanos > 0) {
+			this.waiting.incrementAndGet();
+			try {
+				sleep(TimeUnit.NANOSECONDS.toMillis(waitNanos));
+			} finally {
+				this.waiting.decrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Re-tunes the rate from GitLab's rate limit headers.  Responses without them are ignored.
+	 *
+	 * @param headers response headers
+	 */
+	void update(HttpHeaders headers) {
+		long remainingRequests = NumberUtils.toLong(headers.getFirst(RATE_LIMIT_REMAINING), -1);
+		long resetAt = NumberUtils.toLong(headers.getFirst(RATE_LIMIT_RESET), -1);
+		if (remainingRequests < 0 || resetAt < 0) {
+			return;
+		}
+		this.remaining.set(remainingRequests);
+		long secondsToReset = Math.max(1, resetAt - System.currentTimeMillis() / 1000);
+		synchronized (this) {
+			refill(System.nanoTime());
+			if (remainingRequests == 0) {
+				this.pausedUntilNanos = System.nanoTime() + secondsToReset * NANOS_PER_SECOND;
+				logger.warn("GitLab rate limit used up, pausing GitLab requests for {} second(s).", secondsToReset);
+			}
+			this.rate = Math.max(MIN_REQUESTS_PER_SECOND, Math.min(this.maxRequestsPerSecond, (double) remainingRequests / secondsToReset));
+		}
+	}
+
+	public synchronized double getRate() {
+		return this.rate;
+	}
+
+	/**
+	 * @return true if GitLab calls are currently rejected by the circuit breaker.
+	 */
+	public boolean isCircuitOpen() {
+		return this.circuitBreaker.isOpen();
+	}
+
+	public int getActiveRequests() {
+		return this.active.get();
+	}
+
+	/**
+	 * Gets the most requests that were in flight to GitLab at once since the last call, and starts over.
+	 *
+	 * @return
+	 */
+	public int takePeakActiveRequests() {
+		return this.peakActive.getAndSet(this.active.get());
+	}
+
+	public int getQueueDepth() {
+		return this.waiting.get();
+	}
+
+	public long getRetries() {
+		return this.retries.get();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("mergeminder.gitlab.ratelimit.rate", this, GitlabRateLimiter::getRate)
+			.description("Requests per second currently allowed to GitLab")
+			.register(registry);
+		Gauge.builder("mergeminder.gitlab.ratelimit.queue", this, GitlabRateLimiter::getQueueDepth)
+			.description("Requests waiting for the GitLab rate limiter")
+			.register(registry);
+		Gauge.builder("mergeminder.gitlab.requests.active", this, GitlabRateLimiter::getActiveRequests)
+			.description("Requests to GitLab currently in flight")
+			.register(registry);
+		Gauge.builder("mergeminder.gitlab.ratelimit.remaining", this.remaining, AtomicLong::get)
+			.description("Requests left in GitLab's current rate limit window, -1 until GitLab reports it")
+			.register(registry);
+		FunctionCounter.builder("mergeminder.gitlab.ratelimit.retries", this, GitlabRateLimiter::getRetries)
+			.description("GitLab requests retried after a 429 or 503 response")
+			.register(registry);
+	}
+
+	/**
+	 * A call through the gitlab4j client.
+	 */
+	@FunctionalInterface
+	public interface GitlabCall<T> {
+		T call() throws GitLabApiException;
+	}
+
+	// Private Methods
+	///////////////////
+
+	private void refill(long now) {
+		// the bucket holds at most a second's worth of requests.
+		this.tokens = Math.min(this.rate, this.tokens + (now - this.lastRefillNanos) * this.rate / NANOS_PER_SECOND);
+		this.lastRefillNanos = now;
+	}
+
+	private void started() {
+		int nowActive = this.active.incrementAndGet();
+		this.peakActive.accumulateAndGet(nowActive, Math::max);
+	}
+
+	private void acquirePermission() throws GitLabApiException {
+		try {
+			this.circuitBreaker.acquirePermission();
+		} catch (CallNotPermittedException e) {
+			throw new GitLabApiException(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE.value());
+		}
+	}
+
+	/**
+	 * Checks if a status means GitLab itself is in trouble, rather than rejecting the request.  0 is the status of
+	 * failures without a response.  Throttling (429) is GitLab working as intended, it is backed off but doesn't count
+	 * towards opening the circuit.
+	 */
+	private static boolean isOutage(int status) {
+		return status == 0 || status >= 500;
+	}
+
+	private static boolean isRetryable(int status) {
+		return status == HttpStatus.TOO_MANY_REQUESTS.value() || status == HttpStatus.SERVICE_UNAVAILABLE.value();
+	}
+
+	/**
+	 * Waits before a retry.  Retry-After, when GitLab sends it in seconds, wins over the exponential backoff.  Both get
+	 * jitter so the callers that were throttled together don't all come back at once.
+	 */
+	private void backOff(int attempt, String retryAfter) {
+		this.retries.incrementAndGet();
+		long retryAfterSeconds = NumberUtils.toLong(retryAfter, -1);
+		long delayMillis;
+		if (retryAfterSeconds >= 0) {
+			delayMillis = Duration.ofSeconds(retryAfterSeconds).toMillis() + ThreadLocalRandom.current().nextLong(this.retryBackoffMillis + 1);
+		} else {
+			delayMillis = ThreadLocalRandom.current().nextLong((this.retryBackoffMillis << Math.min(attempt, 16)) + 1);
+		}
+		logger.info("GitLab throttled or unavailable, retry {} of {} in {} ms.", attempt + 1, this.maxRetries, delayMillis);
+		sleep(delayMillis);
+	}
+
+	private static void sleep(long millis) {
+		if (millis <= 0) {
+			return;
+		}
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the GitLab rate limiter.", e);
+		}
+	}
+}
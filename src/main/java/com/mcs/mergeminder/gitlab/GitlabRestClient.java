@@ -0,0 +1,129 @@
+package com.mcs.mergeminder.gitlab;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.gitlab4j.api.GitLabApiException;
+import org.gitlab4j.api.models.Note;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.mcs.mergeminder.exception.CallNotPermittedException;
+import com.mcs.mergeminder.properties.GitlabProperties;
+
+/**
+ * Client for the GitLab REST calls MergeMinder repeats every minding cycle.  Unlike the gitlab4j client it runs on
+ * a {@link RestTemplate}, so its GET requests go through the {@link GitlabHttpCache} and are answered with
+ * <tt>304 Not Modified</tt> when nothing has changed since the last cycle.
+ */
+@Component
+public class GitlabRestClient {
+
+	/* Status of failures that did not come with an HTTP response, same as GitLabApiException uses. */
+	private static final int NO_HTTP_STATUS = 0;
+
+	private static final TypeReference<List<Note>> NOTE_LIST = new TypeReference<>() {
+	};
+
+	private final RestTemplate restTemplate;
+	private final String apiUrl;
+	/* GitLab's REST API uses snake_case names, the gitlab4j models map to them the same way. */
+	private final ObjectMapper objectMapper = new ObjectMapper()
+		.setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+		.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+	public GitlabRestClient(GitlabProperties gitlabProperties, RestTemplateBuilder restTemplateBuilder, GitlabHttpCache httpCache,
+		GitlabRateLimiter rateLimiter) {
+		this.restTemplate = restTemplateBuilder
+			.defaultHeader("PRIVATE-TOKEN", gitlabProperties.getAccesstoken())
+			// the rate limiter goes last, so its retries resend the request exactly as the cache prepared it.
+			.additionalInterceptors(httpCache, rateLimiter)
+			.setConnectTimeout(Duration.ofMillis(gitlabProperties.getConnectTimeoutMillis()))
+			.setReadTimeout(Duration.ofMillis(gitlabProperties.getReadTimeoutMillis()))
+			.build();
+		this.apiUrl = StringUtils.removeEnd(gitlabProperties.getUrl(), "/") + "/api/v4";
+	}
+
+	/**
+	 * Gets one page of an MR's notes, newest first.
+	 *
+	 * @param projectId
+	 * @param mrIid
+	 * @param page page number, starting at 1
+	 * @param perPage
+	 * @return
+	 * @throws GitLabApiException
+	 */
+	public List<Note> getMergeRequestNotes(Long projectId, Long mrIid, int page, int perPage) throws GitLabApiException {
+		byte[] body = get(apiUrl + "/projects/{projectId}/merge_requests/{mrIid}/notes?sort=desc&order_by=created_at&page={page}&per_page={perPage}",
+			projectId, mrIid, page, perPage);
+		try {
+			return objectMapper.readValue(body, NOTE_LIST);
+		} catch (IOException e) {
+			throw new GitLabApiException("Could not read the notes of MR!" + mrIid + ": " + e.getMessage(), NO_HTTP_STATUS);
+		}
+	}
+
+	/**
+	 * Finds which of the given MRs of a project are still open, with a single listing of the MRs by iid.  GitLab
+	 * returns at most 100 MRs per page, so no more than that many iids should be asked for at once.
+	 *
+	 * @param projectPath fully qualified project name, ie: "frontend/ui-projeckt-x"
+	 * @param mrIids
+	 * @return the iids of the MRs that are still open.  MRs that were merged, closed or deleted are left out.
+	 * @throws GitLabApiException with a 404 status if GitLab does not know the project.
+	 */
+	public List<Long> getOpenMergeRequestIids(String projectPath, List<Long> mrIids) throws GitLabApiException {
+		// the path is one URL segment, its slashes have to be encoded.  A URI is passed so nothing is encoded twice.
+		String iids = mrIids.stream().map(iid -> "iids%5B%5D=" + iid).collect(Collectors.joining("&"));
+		URI uri = URI.create(apiUrl + "/projects/" + URLEncoder.encode(projectPath, StandardCharsets.UTF_8)
+			+ "/merge_requests?state=opened&per_page=" + mrIids.size() + "&" + iids);
+		List<Long> openIids = new ArrayList<>();
+		try {
+			for (JsonNode mr : objectMapper.readTree(get(uri))) {
+				openIids.add(mr.path("iid").asLong());
+			}
+		} catch (IOException e) {
+			throw new GitLabApiException("Could not read the MRs of " + projectPath + ": " + e.getMessage(), NO_HTTP_STATUS);
+		}
+		return openIids;
+	}
+
+	private byte[] get(String url, Object... uriVariables) throws GitLabApiException {
+		return get(() -> restTemplate.getForObject(url, byte[].class, uriVariables));
+	}
+
+	private byte[] get(URI uri) throws GitLabApiException {
+		return get(() -> restTemplate.getForObject(uri, byte[].class));
+	}
+
+	private byte[] get(Supplier<byte[]> request) throws GitLabApiException {
+		try {
+			byte[] body = request.get();
+			return body == null ? new byte[0] : body;
+		} catch (RestClientResponseException e) {
+			throw new GitLabApiException("GitLab request failed: " + e.getMessage(), e.getStatusCode().value());
+		} catch (CallNotPermittedException e) {
+			throw new GitLabApiException(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE.value());
+		} catch (RestClientException e) {
+			throw new GitLabApiException("GitLab request failed: " + e.getMessage(), NO_HTTP_STATUS);
+		}
+	}
+}
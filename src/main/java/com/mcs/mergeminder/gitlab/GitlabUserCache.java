@@ -0,0 +1,238 @@
+package com.mcs.mergeminder.gitlab;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.gitlab4j.api.GitLabApiException;
+import org.gitlab4j.api.models.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.mcs.mergeminder.properties.GitlabProperties;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Bounded, TTL based cache of GitLab users.  Users are indexed both by username and by id, so a lookup
+ * by either key will be served from the cache once the user has been loaded by the other.  The cache is
+ * shared across projects and minding cycles.
+ */
+@Component
+public class GitlabUserCache implements MeterBinder {
+
+	private static final Logger logger = LoggerFactory.getLogger(GitlabUserCache.class);
+
+	private final Duration timeToLive;
+	private final int maxSize;
+
+	private final Map<String, CachedUser> usersByUsername;
+	private final Map<Long, CachedUser> usersById;
+	/* Lookups that are currently in flight, so concurrent misses for the same user only hit GitLab once. */
+	private final Map<String, CompletableFuture<User>> pendingLookups = new ConcurrentHashMap<>();
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	public GitlabUserCache(GitlabProperties gitlabProperties) {
+		this.timeToLive = Duration.ofMinutes(gitlabProperties.getUserCacheTtlMinutes());
+		this.maxSize = gitlabProperties.getUserCacheMaxSize();
+		this.usersByUsername = boundedMap(this.maxSize);
+		this.usersById = boundedMap(this.maxSize);
+	}
+
+	/**
+	 * Gets a user by username, loading it through the given loader if it is not cached or has expired.
+	 *
+	 * @param username GitLab username
+	 * @param loader loads the user from GitLab on a cache miss
+	 * @return the user, or null if the loader could not find one
+	 * @throws GitLabApiException
+	 */
+	public User getUser(String username, UserLoader loader) throws GitLabApiException {
+		if (username == null) {
+			return null;
+		}
+		User user = lookup(this.usersByUsername.get(username));
+		if (user != null) {
+			return user;
+		}
+		return load("username:" + username, loader);
+	}
+
+	/**
+	 * Gets a user by id, loading it through the given loader if it is not cached or has expired.
+	 *
+	 * @param userId GitLab user id
+	 * @param loader loads the user from GitLab on a cache miss
+	 * @return the user, or null if the loader could not find one
+	 * @throws GitLabApiException
+	 */
+	public User getUser(Long userId, UserLoader loader) throws GitLabApiException {
+		if (userId == null) {
+			return null;
+		}
+		User user = lookup(this.usersById.get(userId));
+		if (user != null) {
+			return user;
+		}
+		return load("id:" + userId, loader);
+	}
+
+	/**
+	 * Gets a user by id only if it is already cached.  Never goes to GitLab.
+	 *
+	 * @param userId GitLab user id
+	 * @return the cached user, or null if it is not cached or has expired
+	 */
+	public User getIfPresent(Long userId) {
+		if (userId == null) {
+			return null;
+		}
+		return lookup(this.usersById.get(userId));
+	}
+
+	/**
+	 * Adds a user that was loaded elsewhere (ie, as part of a larger response) to the cache.
+	 *
+	 * @param user
+	 */
+	public void put(User user) {
+		if (user == null) {
+			return;
+		}
+		CachedUser cachedUser = new CachedUser(user, Instant.now().plus(this.timeToLive));
+		if (user.getUsername() != null) {
+			this.usersByUsername.put(user.getUsername(), cachedUser);
+		}
+		if (user.getId() != null) {
+			this.usersById.put(user.getId(), cachedUser);
+		}
+	}
+
+	public void clear() {
+		this.usersByUsername.clear();
+		this.usersById.clear();
+	}
+
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	public long getMisses() {
+		return this.misses.get();
+	}
+
+	public int size() {
+		return this.usersByUsername.size();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("mergeminder.gitlab.user.cache", this, GitlabUserCache::getHits)
+			.tag("result", "hit")
+			.description("GitLab user lookups served from the cache")
+			.register(registry);
+		FunctionCounter.builder("mergeminder.gitlab.user.cache", this, GitlabUserCache::getMisses)
+			.tag("result", "miss")
+			.description("GitLab user lookups that went to GitLab")
+			.register(registry);
+		Gauge.builder("mergeminder.gitlab.user.cache.size", this, GitlabUserCache::size)
+			.description("Number of GitLab users currently cached")
+			.register(registry);
+	}
+
+	// Private Methods
+	///////////////////
+
+	private User lookup(CachedUser cachedUser) {
+		if (cachedUser == null || cachedUser.isExpired()) {
+			return null;
+		}
+		this.hits.incrementAndGet();
+		return cachedUser.user;
+	}
+
+	private User load(String key, UserLoader loader) throws GitLabApiException {
+		CompletableFuture<User> lookup = new CompletableFuture<>();
+		CompletableFuture<User> inFlight = this.pendingLookups.putIfAbsent(key, lookup);
+		if (inFlight != null) {
+			// somebody else is already loading this user, wait for them instead of going to GitLab again.
+			this.hits.incrementAndGet();
+			return await(inFlight);
+		}
+		this.misses.incrementAndGet();
+		try {
+			User user = loader.load();
+			put(user);
+			lookup.complete(user);
+			return user;
+		} catch (GitLabApiException | RuntimeException e) {
+			lookup.completeExceptionally(e);
+			throw e;
+		} finally {
+			this.pendingLookups.remove(key);
+		}
+	}
+
+	private User await(CompletableFuture<User> lookup) throws GitLabApiException {
+		try {
+			return lookup.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting on a GitLab user lookup.", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof GitLabApiException) {
+				throw (GitLabApiException) e.getCause();
+			}
+			throw (RuntimeException) e.getCause();
+		}
+	}
+
+	private static <K> Map<K, CachedUser> boundedMap(int maxSize) {
+		return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, CachedUser> eldest) {
+				if (size() > maxSize) {
+					logger.debug("User cache is full, evicting {}.", eldest.getKey());
+					return true;
+				}
+				return false;
+			}
+		});
+	}
+
+	/**
+	 * Loads a user from GitLab on a cache miss.
+	 */
+	@FunctionalInterface
+	public interface UserLoader {
+		User load() throws GitLabApiException;
+	}
+
+	private static class CachedUser {
+		private final User user;
+		private final Instant expiresAt;
+
+		CachedUser(User user, Instant expiresAt) {
+			this.user = user;
+			this.expiresAt = expiresAt;
+		}
+
+		boolean isExpired() {
+			return Instant.now().isAfter(this.expiresAt);
+		}
+	}
+}
@@ -0,0 +1,298 @@
+package com.mcs.mergeminder.gitlab;
+
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import jakarta.annotation.PreDestroy;
+
+import org.gitlab4j.api.Constants;
+import org.gitlab4j.api.models.Assignee;
+import org.gitlab4j.api.models.Author;
+import org.gitlab4j.api.models.MergeRequest;
+import org.gitlab4j.api.models.Note;
+import org.gitlab4j.api.models.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.mcs.mergeminder.MergeMinder;
+import com.mcs.mergeminder.dao.MergeMinderDb;
+import com.mcs.mergeminder.dto.MergeRequestAssignmentInfo;
+import com.mcs.mergeminder.dto.MergeRequestModel;
+import com.mcs.mergeminder.dto.MinderProjectsModel;
+import com.mcs.mergeminder.properties.MergeMinderProperties;
+import com.mcs.mergeminder.util.TimeSchedule;
+
+/**
+ * Applies GitLab merge request and note webhook events.  Everything needed is taken from the event payload and what
+ * is already known locally, GitLab is never called back.  Anything that can't be worked out that way is left for the
+ * scheduled minding run to reconcile.
+ * <p>
+ * Events are applied one at a time, in the order they arrived, on a thread of their own.  Sending reminders can wait on
+ * Slack and on the minding pipeline, the webhook request is answered before that so GitLab doesn't time it out.
+ */
+@Component
+public class GitlabWebhookHandler {
+
+	public static final String MERGE_REQUEST_EVENT = "Merge Request Hook";
+	public static final String NOTE_EVENT = "Note Hook";
+
+	private static final Logger logger = LoggerFactory.getLogger(GitlabWebhookHandler.class);
+	/* Older GitLab versions send timestamps like "2013-12-03 17:23:34 UTC" instead of ISO 8601. */
+	private static final DateTimeFormatter LEGACY_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss z");
+
+	private final MergeMinder mergeMinder;
+	private final MergeMinderDb mergeMinderDb;
+	private final GitlabUserCache userCache;
+	private final MergeRequestFilterEngine filterEngine;
+	private final TimeSchedule timeSchedule;
+	private final MergeMinderProperties mergeMinderProperties;
+	private final ExecutorService eventExecutor;
+
+	public GitlabWebhookHandler(MergeMinder mergeMinder, MergeMinderDb mergeMinderDb, GitlabUserCache userCache, MergeRequestFilterEngine filterEngine,
+		TimeSchedule timeSchedule, MergeMinderProperties mergeMinderProperties) {
+		this.mergeMinder = mergeMinder;
+		this.mergeMinderDb = mergeMinderDb;
+		this.userCache = userCache;
+		this.filterEngine = filterEngine;
+		this.timeSchedule = timeSchedule;
+		this.mergeMinderProperties = mergeMinderProperties;
+		this.eventExecutor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "gitlab-webhook");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		this.eventExecutor.shutdownNow();
+	}
+
+	/**
+	 * Queues a webhook event to be handled after the webhook request is answered.
+	 *
+	 * @param eventType value of the <tt>X-Gitlab-Event</tt> header
+	 * @param event the event payload
+	 */
+	public void submitEvent(String eventType, JsonNode event) {
+		this.eventExecutor.execute(() -> {
+			try {
+				handleEvent(eventType, event);
+			} catch (RuntimeException e) {
+				logger.error("Problem handling GitLab webhook event of type {}.", eventType, e);
+			}
+		});
+	}
+
+	/**
+	 * Handles a webhook event.
+	 *
+	 * @param eventType value of the <tt>X-Gitlab-Event</tt> header
+	 * @param event the event payload
+	 */
+	public void handleEvent(String eventType, JsonNode event) {
+		if (MERGE_REQUEST_EVENT.equals(eventType)) {
+			handleMergeRequestEvent(event);
+		} else if (NOTE_EVENT.equals(eventType)) {
+			handleNoteEvent(event);
+		} else {
+			logger.debug("Ignoring GitLab webhook event of type {}.", eventType);
+		}
+	}
+
+	/**
+	 * Merge request events carry the MR, its assignees, and the changes made to it.
+	 *
+	 * @param event
+	 */
+	void handleMergeRequestEvent(JsonNode event) {
+		JsonNode attributes = event.path("object_attributes");
+		MinderProjectsModel minderProject = findMindedProject(event);
+		if (minderProject == null) {
+			return;
+		}
+		MergeRequest mr = toMergeRequest(attributes, event);
+		MergeRequestModel mrModel = this.mergeMinderDb.getMergeRequestModel(mr.getId());
+		if (!Constants.MergeRequestState.OPENED.toString().equals(mr.getState())) {
+			if (mrModel != null) {
+				logger.info("[{}] Webhook: MR!{} is {}.  No longer minding it.", minderProject.getFullyQualifiedProjectName(), mr.getIid(), mr.getState());
+				this.mergeMinderDb.removeMergeRequestModel(mrModel);
+			}
+			return;
+		}
+
+		String action = attributes.path("action").asText();
+		Note lastAssignment;
+		if ("open".equals(action) || "reopen".equals(action)) {
+			lastAssignment = assignmentNote(-1L, mr.getCreatedAt());
+		} else if (event.path("changes").has("assignees")) {
+			// GitLab does not say which note recorded the assignment, match it up with the note by time later on.
+			lastAssignment = assignmentNote(-1L, mr.getUpdatedAt());
+		} else if (mrModel != null) {
+			lastAssignment = assignmentNote(mrModel.getLastAssignmentId() == null ? -1L : mrModel.getLastAssignmentId(), mrModel.getAssignedAt());
+		} else {
+			logger.debug("[{}] Webhook: MR!{} has not been minded yet.  Leaving it for the next minding run.", minderProject.getFullyQualifiedProjectName(),
+				mr.getIid());
+			return;
+		}
+		mindMergeRequest(minderProject, mr, event, lastAssignment);
+	}
+
+	/**
+	 * GitLab does not send webhooks for the system notes it adds on assignment, comments don't change who an MR is
+	 * assigned to.  Only an assignment note, should one ever arrive, is acted on.
+	 *
+	 * @param event
+	 */
+	void handleNoteEvent(JsonNode event) {
+		JsonNode attributes = event.path("object_attributes");
+		if (!"MergeRequest".equals(attributes.path("noteable_type").asText()) || !event.has("merge_request")) {
+			return;
+		}
+		Note note = new Note();
+		note.setId(attributes.path("id").asLong());
+		note.setBody(attributes.path("note").asText());
+		note.setCreatedAt(parseDate(attributes.path("created_at")));
+		if (!AssignmentNoteScanner.isAssignmentNote(note)) {
+			logger.debug("Webhook: Comment on MR!{}.  Nothing to mind.", event.path("merge_request").path("iid").asLong());
+			return;
+		}
+		MinderProjectsModel minderProject = findMindedProject(event);
+		if (minderProject == null) {
+			return;
+		}
+		mindMergeRequest(minderProject, toMergeRequest(event.path("merge_request"), event), event, note);
+	}
+
+	// Private Methods
+	///////////////////
+
+	private void mindMergeRequest(MinderProjectsModel minderProject, MergeRequest mr, JsonNode event, Note lastAssignment) {
+		if (!this.mergeMinderProperties.getScheduleBypass() && !this.timeSchedule.shouldAlertNow()) {
+			// recording the MR now would swallow the reminder that is due once alert hours begin.
+			logger.debug("[{}] Webhook: MR!{} changed during off hours.  Leaving it for the next minding run.", minderProject.getFullyQualifiedProjectName(),
+				mr.getIid());
+			return;
+		}
+		User author = findAuthor(mr, event);
+		if (author == null) {
+			logger.debug("[{}] Webhook: Author of MR!{} is not known yet.  Leaving it for the next minding run.", minderProject.getFullyQualifiedProjectName(),
+				mr.getIid());
+			return;
+		}
+		mr.getAuthor().setUsername(author.getUsername());
+		if (this.filterEngine.exclude(mr) != null) {
+			return;
+		}
+		List<MergeRequestAssignmentInfo> assignmentInfoList = new ArrayList<>();
+		for (JsonNode assigneeNode : event.path("assignees")) {
+			User assignee = toUser(assigneeNode);
+			this.userCache.put(assignee);
+			assignmentInfoList.add(new MergeRequestAssignmentInfo(mr, assignee, author, lastAssignment, minderProject.getNamespace(),
+				minderProject.getProject()));
+		}
+		logger.info("[{}] Webhook: MR!{} updated.", minderProject.getFullyQualifiedProjectName(), mr.getIid());
+		// only the leader, or the owner of the project's shard, sends reminders.  Other instances skip the ones that are due.
+		this.mergeMinder.mindAssignments(minderProject, assignmentInfoList);
+	}
+
+	private MinderProjectsModel findMindedProject(JsonNode event) {
+		JsonNode project = event.path("project");
+		Long projectId = project.path("id").asLong();
+		MinderProjectsModel minderProject = this.mergeMinderDb.getMinderProject(projectId, project.path("path_with_namespace").asText(null));
+		if (minderProject == null) {
+			logger.debug("Webhook: Project {} is not minded.", project.path("path_with_namespace").asText());
+			return null;
+		}
+		if (minderProject.getGitlabProjectId() == null) {
+			minderProject.setGitlabProjectId(projectId);
+			this.mergeMinderDb.saveMinderProject(minderProject);
+		}
+		return minderProject;
+	}
+
+	/**
+	 * The event names the author by id only.  Use the user that triggered the event if that's the author, otherwise
+	 * the author has to be cached already.
+	 */
+	private User findAuthor(MergeRequest mr, JsonNode event) {
+		Long authorId = mr.getAuthor().getId();
+		User actor = toUser(event.path("user"));
+		if (authorId != null && authorId.equals(actor.getId())) {
+			return actor;
+		}
+		return this.userCache.getIfPresent(authorId);
+	}
+
+	private MergeRequest toMergeRequest(JsonNode attributes, JsonNode event) {
+		MergeRequest mr = new MergeRequest();
+		mr.setId(attributes.path("id").asLong());
+		mr.setIid(attributes.path("iid").asLong());
+		mr.setProjectId(attributes.path("target_project_id").asLong(event.path("project").path("id").asLong()));
+		mr.setTitle(attributes.path("title").asText());
+		mr.setWebUrl(attributes.path("url").asText());
+		mr.setState(attributes.path("state").asText());
+		mr.setTargetBranch(attributes.path("target_branch").asText(null));
+		mr.setSourceBranch(attributes.path("source_branch").asText(null));
+		mr.setWorkInProgress(attributes.path("work_in_progress").asBoolean(false) || attributes.path("draft").asBoolean(false));
+		mr.setCreatedAt(parseDate(attributes.path("created_at")));
+		mr.setUpdatedAt(parseDate(attributes.path("updated_at")));
+		Author author = new Author();
+		author.setId(attributes.path("author_id").asLong());
+		mr.setAuthor(author);
+		List<Assignee> assignees = new ArrayList<>();
+		for (JsonNode assigneeNode : event.path("assignees")) {
+			Assignee assignee = new Assignee();
+			assignee.setId(assigneeNode.path("id").asLong());
+			assignee.setUsername(assigneeNode.path("username").asText());
+			assignee.setName(assigneeNode.path("name").asText());
+			assignees.add(assignee);
+		}
+		mr.setAssignees(assignees);
+		List<String> labels = new ArrayList<>();
+		for (JsonNode label : event.path("labels")) {
+			labels.add(label.path("title").asText());
+		}
+		mr.setLabels(labels);
+		return mr;
+	}
+
+	private User toUser(JsonNode userNode) {
+		User user = new User();
+		user.setId(userNode.hasNonNull("id") ? userNode.path("id").asLong() : null);
+		user.setUsername(userNode.path("username").asText(null));
+		user.setName(userNode.path("name").asText(null));
+		String email = userNode.path("email").asText(null);
+		// GitLab redacts emails in webhook payloads unless the user made theirs public.
+		user.setEmail(email != null && email.contains("@") ? email : null);
+		return user;
+	}
+
+	private static Note assignmentNote(Long id, Date createdAt) {
+		Note note = new Note();
+		note.setId(id);
+		note.setCreatedAt(createdAt);
+		return note;
+	}
+
+	static Date parseDate(JsonNode dateNode) {
+		String date = dateNode.asText(null);
+		if (date == null || date.isEmpty()) {
+			return null;
+		}
+		try {
+			return Date.from(OffsetDateTime.parse(date).toInstant());
+		} catch (DateTimeParseException e) {
+			return Date.from(ZonedDateTime.parse(date, LEGACY_DATE_FORMAT).toInstant());
+		}
+	}
+}
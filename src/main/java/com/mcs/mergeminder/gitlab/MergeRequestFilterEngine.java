@@ -0,0 +1,162 @@
+package com.mcs.mergeminder.gitlab;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.gitlab4j.api.models.MergeRequest;
+import org.gitlab4j.api.models.MergeRequestFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.mcs.mergeminder.properties.GitlabProperties;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Decides which open MRs are minded at all, before any of their notes or users are looked up.  The rules are compiled
+ * once from <tt>mm.gitlab.ignoredByLabels</tt>, <tt>mm.gitlab.ignoreDrafts</tt>, <tt>mm.gitlab.targetBranches</tt> and
+ * <tt>mm.gitlab.ignoredAuthors</tt>.  Rules GitLab can apply itself are also pushed down into the MR listings, so
+ * those MRs are not even sent.  Every listing is still checked here, since not every rule can be pushed down.
+ */
+@Component
+public class MergeRequestFilterEngine implements MeterBinder {
+
+	private static final Logger logger = LoggerFactory.getLogger(MergeRequestFilterEngine.class);
+
+	/**
+	 * The reasons an MR is not minded, in the order they are checked.
+	 */
+	public enum Rule {
+		LABEL("label"), DRAFT("draft"), TARGET_BRANCH("target_branch"), AUTHOR("author");
+
+		private final String tag;
+
+		Rule(String tag) {
+			this.tag = tag;
+		}
+	}
+
+	private final Set<String> ignoredLabels;
+	private final boolean ignoreDrafts;
+	private final Set<String> targetBranches;
+	private final Set<String> ignoredAuthors;
+	private final Map<Rule, AtomicLong> excluded = new EnumMap<>(Rule.class);
+
+	public MergeRequestFilterEngine(GitlabProperties gitlabProperties) {
+		this.ignoredLabels = normalize(gitlabProperties.getIgnoredByLabels(), true);
+		this.ignoreDrafts = !Boolean.FALSE.equals(gitlabProperties.getIgnoreDrafts());
+		this.targetBranches = normalize(gitlabProperties.getTargetBranches(), false);
+		this.ignoredAuthors = normalize(gitlabProperties.getIgnoredAuthors(), true);
+		for (Rule rule : Rule.values()) {
+			this.excluded.put(rule, new AtomicLong());
+		}
+	}
+
+	/**
+	 * Checks an MR against the rules, counting it against the first rule that excludes it.
+	 *
+	 * @param mr
+	 * @return the rule that excludes the MR, or null if it is minded.
+	 */
+	public Rule exclude(MergeRequest mr) {
+		Rule rule = findExcludingRule(mr);
+		if (rule != null) {
+			this.excluded.get(rule).incrementAndGet();
+			logger.debug("MR!{}: {} is not minded ({}).", mr.getIid(), mr.getTitle(), rule);
+		}
+		return rule;
+	}
+
+	/**
+	 * Adds the rules GitLab's MR listings support to a filter: drafts (<tt>wip=no</tt>), and the target branch when
+	 * only one is minded.  Labels and authors can only be excluded one value at a time, so they are left to
+	 * {@link #exclude(MergeRequest)}.
+	 *
+	 * @param filter
+	 * @return the filter
+	 */
+	public MergeRequestFilter pushDown(MergeRequestFilter filter) {
+		if (this.ignoreDrafts) {
+			filter.withWip(Boolean.FALSE);
+		}
+		if (this.targetBranches.size() == 1) {
+			filter.withTargetBranch(this.targetBranches.iterator().next());
+		}
+		return filter;
+	}
+
+	/**
+	 * @return the value of the GraphQL <tt>draft</tt> argument, null to list drafts and other MRs alike.
+	 */
+	public Boolean getDraftArgument() {
+		return this.ignoreDrafts ? Boolean.FALSE : null;
+	}
+
+	/**
+	 * @return the value of the GraphQL <tt>targetBranches</tt> argument, null to list MRs targeting any branch.
+	 */
+	public List<String> getTargetBranchesArgument() {
+		return this.targetBranches.isEmpty() ? null : List.copyOf(this.targetBranches);
+	}
+
+	public long getExcluded(Rule rule) {
+		return this.excluded.get(rule).get();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		for (Rule rule : Rule.values()) {
+			FunctionCounter.builder("mergeminder.gitlab.filter.excluded", this.excluded.get(rule), AtomicLong::get)
+				.tag("rule", rule.tag)
+				.description("Open MRs that were not minded, and so needed no notes or user lookups")
+				.register(registry);
+		}
+	}
+
+	// Private Methods
+	///////////////////
+
+	private Rule findExcludingRule(MergeRequest mr) {
+		if (!this.ignoredLabels.isEmpty() && mr.getLabels() != null) {
+			for (String label : mr.getLabels()) {
+				if (label != null && this.ignoredLabels.contains(label.trim().toLowerCase(Locale.ROOT))) {
+					return Rule.LABEL;
+				}
+			}
+		}
+		if (this.ignoreDrafts && Boolean.TRUE.equals(mr.getWorkInProgress())) {
+			return Rule.DRAFT;
+		}
+		if (!this.targetBranches.isEmpty() && !this.targetBranches.contains(mr.getTargetBranch())) {
+			return Rule.TARGET_BRANCH;
+		}
+		if (!this.ignoredAuthors.isEmpty() && mr.getAuthor() != null && mr.getAuthor().getUsername() != null
+			&& this.ignoredAuthors.contains(mr.getAuthor().getUsername().toLowerCase(Locale.ROOT))) {
+			return Rule.AUTHOR;
+		}
+		return null;
+	}
+
+	private static Set<String> normalize(List<String> values, boolean ignoreCase) {
+		Set<String> normalized = Optional.ofNullable(values).orElse(List.of())
+			.stream()
+			.map(StringUtils::trimToNull)
+			.filter(Objects::nonNull)
+			.map(value -> ignoreCase ? value.toLowerCase(Locale.ROOT) : value)
+			.collect(Collectors.toCollection(LinkedHashSet::new));
+		return Collections.unmodifiableSet(normalized);
+	}
+}
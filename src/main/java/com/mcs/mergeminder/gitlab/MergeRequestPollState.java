@@ -0,0 +1,102 @@
+package com.mcs.mergeminder.gitlab;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.gitlab4j.api.models.MergeRequest;
+
+import com.mcs.mergeminder.dto.MergeRequestAssignmentInfo;
+
+/**
+ * Remembers what was last seen for a single project when polling incrementally.  Holds the high-water mark
+ * (the newest <tt>updated_at</tt> seen on any MR) and the assignment info computed for each open MR, so MRs
+ * that have not changed since the last poll can be reused without going back to GitLab.
+ */
+class MergeRequestPollState {
+
+	private final Map<Long, List<MergeRequestAssignmentInfo>> assignmentsByMrIid = new ConcurrentHashMap<>();
+	private Date highWaterMark;
+	private Date retryFrom;
+	private int pollsSinceFullRefresh;
+
+	Date getHighWaterMark() {
+		return highWaterMark == null ? null : new Date(highWaterMark.getTime());
+	}
+
+	int getPollsSinceFullRefresh() {
+		return pollsSinceFullRefresh;
+	}
+
+	/**
+	 * Records the assignment info for an open MR, replacing whatever was computed for it previously.
+	 *
+	 * @param mr
+	 * @param assignments the assignment info for the MR.  Empty if the MR is ignored or unassigned.
+	 */
+	void update(MergeRequest mr, List<MergeRequestAssignmentInfo> assignments) {
+		assignmentsByMrIid.put(mr.getIid(), assignments);
+		advanceHighWaterMark(mr.getUpdatedAt());
+	}
+
+	/**
+	 * Forgets an MR that is no longer open.
+	 *
+	 * @param mr
+	 */
+	void remove(MergeRequest mr) {
+		assignmentsByMrIid.remove(mr.getIid());
+		advanceHighWaterMark(mr.getUpdatedAt());
+	}
+
+	/**
+	 * Keeps whatever was computed for an MR that could not be looked up this poll, and makes sure the next poll lists
+	 * it again.
+	 *
+	 * @param mr
+	 */
+	void failed(MergeRequest mr) {
+		Date updatedAt = mr.getUpdatedAt();
+		if (updatedAt != null && (retryFrom == null || updatedAt.before(retryFrom))) {
+			retryFrom = new Date(updatedAt.getTime());
+		}
+	}
+
+	/**
+	 * Marks the end of a poll.  The high-water mark is held back before any MR that failed, so it is listed again.
+	 *
+	 * @param fullRefresh true if the poll listed every open MR rather than only the ones that changed.
+	 */
+	void pollComplete(boolean fullRefresh) {
+		pollsSinceFullRefresh = fullRefresh ? 0 : pollsSinceFullRefresh + 1;
+		if (retryFrom != null && highWaterMark != null && !highWaterMark.before(retryFrom)) {
+			highWaterMark = new Date(retryFrom.getTime() - 1);
+		}
+		retryFrom = null;
+	}
+
+	void clear() {
+		assignmentsByMrIid.clear();
+		highWaterMark = null;
+		retryFrom = null;
+	}
+
+	int getOpenMergeRequestCount() {
+		return assignmentsByMrIid.size();
+	}
+
+	Collection<MergeRequestAssignmentInfo> getAssignmentInfo() {
+		List<MergeRequestAssignmentInfo> assignmentInfoList = new ArrayList<>();
+		assignmentsByMrIid.values().forEach(assignmentInfoList::addAll);
+		return assignmentInfoList;
+	}
+
+	private void advanceHighWaterMark(Date updatedAt) {
+		if (updatedAt != null && (highWaterMark == null || updatedAt.after(highWaterMark))) {
+			highWaterMark = new Date(updatedAt.getTime());
+		}
+	}
+}
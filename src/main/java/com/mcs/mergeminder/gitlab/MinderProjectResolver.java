@@ -0,0 +1,105 @@
+package com.mcs.mergeminder.gitlab;
+
+import java.util.Collection;
+
+import org.apache.commons.lang3.StringUtils;
+import org.gitlab4j.api.GitLabApiException;
+import org.gitlab4j.api.models.MergeRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.mcs.mergeminder.dao.MergeMinderDb;
+import com.mcs.mergeminder.dto.MergeRequestAssignmentInfo;
+import com.mcs.mergeminder.dto.MinderProjectsModel;
+
+/**
+ * Keeps the GitLab project id stored on each {@link MinderProjectsModel} in sync with GitLab.  The id is resolved
+ * from the project's path once and persisted, after that it is only re-resolved if GitLab no longer knows it.
+ */
+@Component
+public class MinderProjectResolver {
+
+	private static final Logger logger = LoggerFactory.getLogger(MinderProjectResolver.class);
+
+	private final GitlabIntegration gitlabIntegration;
+	private final MergeMinderDb mergeMinderDb;
+
+	public MinderProjectResolver(GitlabIntegration gitlabIntegration, MergeMinderDb mergeMinderDb) {
+		this.gitlabIntegration = gitlabIntegration;
+		this.mergeMinderDb = mergeMinderDb;
+	}
+
+	/**
+	 * Gets the GitLab project id for the minded project, resolving and saving it if it is not known yet.
+	 *
+	 * @param minderProject
+	 * @return
+	 * @throws GitLabApiException
+	 */
+	public Long getProjectId(MinderProjectsModel minderProject) throws GitLabApiException {
+		if (minderProject.getGitlabProjectId() != null) {
+			return minderProject.getGitlabProjectId();
+		}
+		return resolveProjectId(minderProject);
+	}
+
+	/**
+	 * Looks the project up by its path and saves the id GitLab returns.  Used the first time a project is minded
+	 * and when GitLab stops recognizing the stored id (ie, the project was deleted and recreated).
+	 *
+	 * @param minderProject
+	 * @return
+	 * @throws GitLabApiException a 404 if GitLab has no project at the path.  Nothing is saved then.
+	 */
+	public Long resolveProjectId(MinderProjectsModel minderProject) throws GitLabApiException {
+		Long previousId = minderProject.getGitlabProjectId();
+		Long projectId = this.gitlabIntegration.resolveProjectId(minderProject.getNamespace(), minderProject.getProject());
+		if (projectId == null) {
+			throw new GitLabApiException("Project " + minderProject.getFullyQualifiedProjectName() + " was not found.", 404);
+		}
+		if (previousId != null) {
+			logger.info("[{}] GitLab project id changed from {} to {}.", minderProject.getFullyQualifiedProjectName(), previousId, projectId);
+			this.gitlabIntegration.forgetProject(previousId);
+		}
+		minderProject.setGitlabProjectId(projectId);
+		this.mergeMinderDb.saveMinderProject(minderProject);
+		return projectId;
+	}
+
+	/**
+	 * Checks the path GitLab reports on the project's MRs against the namespace and project name that are stored.  If
+	 * the project was renamed or transferred since, the stored path is updated.
+	 *
+	 * @param minderProject
+	 * @param assignmentInfoList MRs just fetched for the project.
+	 */
+	public void updateProjectPath(MinderProjectsModel minderProject, Collection<MergeRequestAssignmentInfo> assignmentInfoList) {
+		if (assignmentInfoList == null || assignmentInfoList.isEmpty()) {
+			return;
+		}
+		String currentPath = getProjectPath(assignmentInfoList.iterator().next().getMr());
+		if (currentPath == null || currentPath.equals(minderProject.getFullyQualifiedProjectName())) {
+			return;
+		}
+		logger.info("[{}] Project has moved to [{}].  Updating.", minderProject.getFullyQualifiedProjectName(), currentPath);
+		minderProject.setNamespace(StringUtils.substringBeforeLast(currentPath, "/"));
+		minderProject.setProject(StringUtils.substringAfterLast(currentPath, "/"));
+		this.mergeMinderDb.saveMinderProject(minderProject);
+		// what was remembered about the project's MRs still carries the old path.
+		this.gitlabIntegration.forgetProject(minderProject.getGitlabProjectId());
+	}
+
+	/**
+	 * Gets the fully qualified path of the project an MR belongs to, from the MR's full reference ("group/project!12").
+	 *
+	 * @param mr
+	 * @return
+	 */
+	static String getProjectPath(MergeRequest mr) {
+		if (mr.getReferences() == null || mr.getReferences().getFull() == null || !mr.getReferences().getFull().contains("/")) {
+			return null;
+		}
+		return StringUtils.substringBeforeLast(mr.getReferences().getFull(), "!");
+	}
+}
@@ -0,0 +1,35 @@
+package com.mcs.mergeminder.gitlab;
+
+import java.util.List;
+
+import org.gitlab4j.api.GitLabApiException;
+import org.gitlab4j.api.Pager;
+
+/**
+ * Helpers for walking GitLab {@link Pager}s.
+ */
+final class Pagers {
+
+	private Pagers() {
+		// static helpers only
+	}
+
+	/**
+	 * Fetches the next page.  The pager wraps API failures in a runtime exception, this unwraps them so callers see
+	 * the usual {@link GitLabApiException}.
+	 *
+	 * @param pager
+	 * @return
+	 * @throws GitLabApiException
+	 */
+	static <T> List<T> nextPage(Pager<T> pager) throws GitLabApiException {
+		try {
+			return pager.next();
+		} catch (RuntimeException e) {
+			if (e.getCause() instanceof GitLabApiException) {
+				throw (GitLabApiException) e.getCause();
+			}
+			throw e;
+		}
+	}
+}
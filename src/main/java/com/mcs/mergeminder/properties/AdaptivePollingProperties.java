@@ -0,0 +1,45 @@
+package com.mcs.mergeminder.properties;
+
+/**
+ * Settings of polling each project at its own interval, depending on how active it is.
+ */
+public class AdaptivePollingProperties {
+
+	/**
+	 * Polls busy projects every minimum interval and backs off on idle ones.  Off, every project is polled every
+	 * minding run.
+	 */
+	private boolean enabled = false;
+	/**
+	 * Seconds between polls of a project with open, assigned MRs or recent changes.
+	 */
+	private long minIntervalSeconds = 300;
+	/**
+	 * Most seconds between polls of an idle project.
+	 */
+	private long maxIntervalSeconds = 3600;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public long getMinIntervalSeconds() {
+		return minIntervalSeconds;
+	}
+
+	public void setMinIntervalSeconds(long minIntervalSeconds) {
+		this.minIntervalSeconds = minIntervalSeconds;
+	}
+
+	public long getMaxIntervalSeconds() {
+		return maxIntervalSeconds;
+	}
+
+	public void setMaxIntervalSeconds(long maxIntervalSeconds) {
+		this.maxIntervalSeconds = maxIntervalSeconds;
+	}
+}
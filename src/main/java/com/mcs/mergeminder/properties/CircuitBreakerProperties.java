@@ -0,0 +1,56 @@
+package com.mcs.mergeminder.properties;
+
+/**
+ * Settings of the circuit breaker and bulkhead guarding an external service.
+ */
+public class CircuitBreakerProperties {
+
+	/**
+	 * Consecutive failed calls after which the circuit opens and calls are rejected without being made.
+	 */
+	private int failureThreshold = 5;
+	/**
+	 * Seconds the circuit stays open before a single probe call is let through.
+	 */
+	private int openSeconds = 60;
+	/**
+	 * Most calls in flight at the same time.  0 sizes it from the threads that call the service.
+	 */
+	private int maxConcurrentCalls = 0;
+	/**
+	 * Milliseconds a call waits for one of the calls in flight to finish before it is rejected.
+	 */
+	private long maxWaitMillis = 30000;
+
+	public int getFailureThreshold() {
+		return failureThreshold;
+	}
+
+	public void setFailureThreshold(int failureThreshold) {
+		this.failureThreshold = failureThreshold;
+	}
+
+	public int getOpenSeconds() {
+		return openSeconds;
+	}
+
+	public void setOpenSeconds(int openSeconds) {
+		this.openSeconds = openSeconds;
+	}
+
+	public int getMaxConcurrentCalls() {
+		return maxConcurrentCalls;
+	}
+
+	public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+		this.maxConcurrentCalls = maxConcurrentCalls;
+	}
+
+	public long getMaxWaitMillis() {
+		return maxWaitMillis;
+	}
+
+	public void setMaxWaitMillis(long maxWaitMillis) {
+		this.maxWaitMillis = maxWaitMillis;
+	}
+}
@@ -13,6 +13,16 @@ import java.util.List;
 @Validated
 public class GitlabProperties {
 
+	/**
+	 * GitLab APIs open MRs can be fetched with.
+	 */
+	public enum Backend {
+		/** One REST listing per project, then notes and user lookups per MR. */
+		REST,
+		/** One GraphQL query per page of MRs, carrying their authors, assignees and latest notes. */
+		GRAPHQL
+	}
+
 	/**
 	 * Gitlab URL.  Must begin with http:// or https://
 	 */
@@ -23,6 +33,87 @@ public class GitlabProperties {
 	private String accesstoken;
 
 	private List<String> ignoredByLabels;
+	/**
+	 * Skip draft MRs.
+	 */
+	private Boolean ignoreDrafts = true;
+	/**
+	 * Only mind MRs targeting one of these branches.  Empty to mind MRs targeting any branch.
+	 */
+	private List<String> targetBranches;
+	/**
+	 * Skip MRs opened by these users, ie, bots.
+	 */
+	private List<String> ignoredAuthors;
+
+	/**
+	 * Number of minutes a GitLab user stays in the user cache before being looked up again.
+	 */
+	private int userCacheTtlMinutes = 60;
+	/**
+	 * Maximum number of GitLab users held in the user cache.
+	 */
+	private int userCacheMaxSize = 1000;
+	/**
+	 * When enabled, only MRs updated since the last poll are fetched from GitLab.
+	 */
+	private Boolean incrementalPolling = false;
+	/**
+	 * Number of incremental polls after which a project's open MRs are listed in full again.
+	 */
+	private int fullRefreshPolls = 12;
+	/**
+	 * Number of notes requested per page when looking for an MR's last assignment.
+	 */
+	private int notesPageSize = 20;
+	/**
+	 * Number of MRs requested per page when listing a group's MRs.
+	 */
+	private int mergeRequestsPageSize = 100;
+	/**
+	 * Namespaces (groups) whose minded projects have their MRs fetched with one group level listing.
+	 */
+	private List<String> groupFetchNamespaces;
+	/**
+	 * Secret token GitLab webhooks must send.  Webhook events are rejected until this is set.
+	 */
+	private String webhookSecret;
+	/**
+	 * API used to fetch a project's open MRs.
+	 */
+	private Backend backend = Backend.REST;
+	/**
+	 * Maximum number of GitLab responses kept for conditional (ETag) requests.  0 turns the cache off.
+	 */
+	private int httpCacheMaxEntries = 2000;
+	/**
+	 * Most requests per second sent to GitLab.  GitLab's RateLimit headers can lower the rate, never raise it above this.
+	 */
+	private double maxRequestsPerSecond = 10;
+	/**
+	 * Number of times a GitLab request is retried after a 429 (Too Many Requests) or 503 (Service Unavailable).
+	 */
+	private int maxRetries = 3;
+	/**
+	 * Base delay, in milliseconds, of the jittered exponential backoff between retries.
+	 */
+	private long retryBackoffMillis = 1000;
+	/**
+	 * Number of MRs whose notes and users are looked up at the same time.
+	 */
+	private int enrichmentThreads = 8;
+	/**
+	 * Milliseconds to wait for a connection to GitLab.
+	 */
+	private int connectTimeoutMillis = 5000;
+	/**
+	 * Milliseconds to wait for GitLab to answer a request.
+	 */
+	private int readTimeoutMillis = 30000;
+	/**
+	 * Circuit breaker and bulkhead around GitLab calls.
+	 */
+	private CircuitBreakerProperties circuitBreaker = new CircuitBreakerProperties();
 
 	public String getUrl() {
 		return url;
@@ -47,4 +138,164 @@ public class GitlabProperties {
 	public void setIgnoredByLabels(List<String> ignoredByLabels) {
 		this.ignoredByLabels = ignoredByLabels;
 	}
+
+	public Boolean getIgnoreDrafts() {
+		return ignoreDrafts;
+	}
+
+	public void setIgnoreDrafts(Boolean ignoreDrafts) {
+		this.ignoreDrafts = ignoreDrafts;
+	}
+
+	public List<String> getTargetBranches() {
+		return targetBranches;
+	}
+
+	public void setTargetBranches(List<String> targetBranches) {
+		this.targetBranches = targetBranches;
+	}
+
+	public List<String> getIgnoredAuthors() {
+		return ignoredAuthors;
+	}
+
+	public void setIgnoredAuthors(List<String> ignoredAuthors) {
+		this.ignoredAuthors = ignoredAuthors;
+	}
+
+	public int getUserCacheTtlMinutes() {
+		return userCacheTtlMinutes;
+	}
+
+	public void setUserCacheTtlMinutes(int userCacheTtlMinutes) {
+		this.userCacheTtlMinutes = userCacheTtlMinutes;
+	}
+
+	public int getUserCacheMaxSize() {
+		return userCacheMaxSize;
+	}
+
+	public void setUserCacheMaxSize(int userCacheMaxSize) {
+		this.userCacheMaxSize = userCacheMaxSize;
+	}
+
+	public Boolean getIncrementalPolling() {
+		return incrementalPolling;
+	}
+
+	public void setIncrementalPolling(Boolean incrementalPolling) {
+		this.incrementalPolling = incrementalPolling;
+	}
+
+	public int getFullRefreshPolls() {
+		return fullRefreshPolls;
+	}
+
+	public void setFullRefreshPolls(int fullRefreshPolls) {
+		this.fullRefreshPolls = fullRefreshPolls;
+	}
+
+	public int getNotesPageSize() {
+		return notesPageSize;
+	}
+
+	public void setNotesPageSize(int notesPageSize) {
+		this.notesPageSize = notesPageSize;
+	}
+
+	public int getMergeRequestsPageSize() {
+		return mergeRequestsPageSize;
+	}
+
+	public void setMergeRequestsPageSize(int mergeRequestsPageSize) {
+		this.mergeRequestsPageSize = mergeRequestsPageSize;
+	}
+
+	public List<String> getGroupFetchNamespaces() {
+		return groupFetchNamespaces;
+	}
+
+	public void setGroupFetchNamespaces(List<String> groupFetchNamespaces) {
+		this.groupFetchNamespaces = groupFetchNamespaces;
+	}
+
+	public String getWebhookSecret() {
+		return webhookSecret;
+	}
+
+	public void setWebhookSecret(String webhookSecret) {
+		this.webhookSecret = webhookSecret;
+	}
+
+	public Backend getBackend() {
+		return backend;
+	}
+
+	public void setBackend(Backend backend) {
+		this.backend = backend;
+	}
+
+	public int getHttpCacheMaxEntries() {
+		return httpCacheMaxEntries;
+	}
+
+	public void setHttpCacheMaxEntries(int httpCacheMaxEntries) {
+		this.httpCacheMaxEntries = httpCacheMaxEntries;
+	}
+
+	public double getMaxRequestsPerSecond() {
+		return maxRequestsPerSecond;
+	}
+
+	public void setMaxRequestsPerSecond(double maxRequestsPerSecond) {
+		this.maxRequestsPerSecond = maxRequestsPerSecond;
+	}
+
+	public int getMaxRetries() {
+		return maxRetries;
+	}
+
+	public void setMaxRetries(int maxRetries) {
+		this.maxRetries = maxRetries;
+	}
+
+	public long getRetryBackoffMillis() {
+		return retryBackoffMillis;
+	}
+
+	public void setRetryBackoffMillis(long retryBackoffMillis) {
+		this.retryBackoffMillis = retryBackoffMillis;
+	}
+
+	public int getEnrichmentThreads() {
+		return enrichmentThreads;
+	}
+
+	public void setEnrichmentThreads(int enrichmentThreads) {
+		this.enrichmentThreads = enrichmentThreads;
+	}
+
+	public int getConnectTimeoutMillis() {
+		return connectTimeoutMillis;
+	}
+
+	public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+		this.connectTimeoutMillis = connectTimeoutMillis;
+	}
+
+	public int getReadTimeoutMillis() {
+		return readTimeoutMillis;
+	}
+
+	public void setReadTimeoutMillis(int readTimeoutMillis) {
+		this.readTimeoutMillis = readTimeoutMillis;
+	}
+
+	public CircuitBreakerProperties getCircuitBreaker() {
+		return circuitBreaker;
+	}
+
+	public void setCircuitBreaker(CircuitBreakerProperties circuitBreaker) {
+		this.circuitBreaker = circuitBreaker;
+	}
 }
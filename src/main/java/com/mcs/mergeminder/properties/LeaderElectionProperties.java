@@ -0,0 +1,45 @@
+package com.mcs.mergeminder.properties;
+
+/**
+ * Settings of electing the one MergeMinder instance that runs the scheduled jobs.
+ */
+public class LeaderElectionProperties {
+
+	/**
+	 * Only runs the scheduled jobs on the instance holding the leader lock.  Off, every instance runs them.
+	 */
+	private boolean enabled = false;
+	/**
+	 * Seconds the leader holds the lock without renewing it.  Keep it below the minding interval, so a new leader
+	 * takes over within one cycle.
+	 */
+	private int lockSeconds = 60;
+	/**
+	 * Seconds between attempts to take or renew the lock.  Must be well below the lock time.
+	 */
+	private int renewSeconds = 15;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getLockSeconds() {
+		return lockSeconds;
+	}
+
+	public void setLockSeconds(int lockSeconds) {
+		this.lockSeconds = lockSeconds;
+	}
+
+	public int getRenewSeconds() {
+		return renewSeconds;
+	}
+
+	public void setRenewSeconds(int renewSeconds) {
+		this.renewSeconds = renewSeconds;
+	}
+}
@@ -18,6 +18,14 @@ public class MergeMinderProperties {
 	private int endAlertHour = 18;
 	private Boolean alertOnWeekends = false;
 	private List<String> adminEmails = null;
+	private PipelineProperties pipeline = new PipelineProperties();
+	private int projectParallelism = 8;
+	private long projectTimeoutSeconds = 120;
+	private long cycleDeadlineSeconds = 240;
+	private long pollSpreadSeconds = 0;
+	private AdaptivePollingProperties adaptivePolling = new AdaptivePollingProperties();
+	private ShardingProperties sharding = new ShardingProperties();
+	private LeaderElectionProperties leaderElection = new LeaderElectionProperties();
 
 	public String getApplicationVersion() {
 		return applicationVersion;
@@ -74,4 +82,68 @@ public class MergeMinderProperties {
 	public void setAdminEmails(List<String> adminEmails) {
 		this.adminEmails = adminEmails;
 	}
+
+	public PipelineProperties getPipeline() {
+		return pipeline;
+	}
+
+	public void setPipeline(PipelineProperties pipeline) {
+		this.pipeline = pipeline;
+	}
+
+	public int getProjectParallelism() {
+		return projectParallelism;
+	}
+
+	public void setProjectParallelism(int projectParallelism) {
+		this.projectParallelism = projectParallelism;
+	}
+
+	public long getProjectTimeoutSeconds() {
+		return projectTimeoutSeconds;
+	}
+
+	public void setProjectTimeoutSeconds(long projectTimeoutSeconds) {
+		this.projectTimeoutSeconds = projectTimeoutSeconds;
+	}
+
+	public long getCycleDeadlineSeconds() {
+		return cycleDeadlineSeconds;
+	}
+
+	public void setCycleDeadlineSeconds(long cycleDeadlineSeconds) {
+		this.cycleDeadlineSeconds = cycleDeadlineSeconds;
+	}
+
+	public long getPollSpreadSeconds() {
+		return pollSpreadSeconds;
+	}
+
+	public void setPollSpreadSeconds(long pollSpreadSeconds) {
+		this.pollSpreadSeconds = pollSpreadSeconds;
+	}
+
+	public AdaptivePollingProperties getAdaptivePolling() {
+		return adaptivePolling;
+	}
+
+	public void setAdaptivePolling(AdaptivePollingProperties adaptivePolling) {
+		this.adaptivePolling = adaptivePolling;
+	}
+
+	public ShardingProperties getSharding() {
+		return sharding;
+	}
+
+	public void setSharding(ShardingProperties sharding) {
+		this.sharding = sharding;
+	}
+
+	public LeaderElectionProperties getLeaderElection() {
+		return leaderElection;
+	}
+
+	public void setLeaderElection(LeaderElectionProperties leaderElection) {
+		this.leaderElection = leaderElection;
+	}
 }
@@ -0,0 +1,45 @@
+package com.mcs.mergeminder.properties;
+
+/**
+ * Settings of the stages an MR goes through once its assignment is known: deciding which reminder is due, sending it
+ * through Slack and recording it.
+ */
+public class PipelineProperties {
+
+	/**
+	 * Works out the reminder that is due, reading the last reminder sent from the database.
+	 */
+	private PipelineStageProperties decide = new PipelineStageProperties(4, 100);
+	/**
+	 * Sends reminders through Slack.
+	 */
+	private PipelineStageProperties notify = new PipelineStageProperties(16, 100);
+	/**
+	 * Records the reminders sent in the database.
+	 */
+	private PipelineStageProperties persist = new PipelineStageProperties(4, 100);
+
+	public PipelineStageProperties getDecide() {
+		return decide;
+	}
+
+	public void setDecide(PipelineStageProperties decide) {
+		this.decide = decide;
+	}
+
+	public PipelineStageProperties getNotify() {
+		return notify;
+	}
+
+	public void setNotify(PipelineStageProperties notify) {
+		this.notify = notify;
+	}
+
+	public PipelineStageProperties getPersist() {
+		return persist;
+	}
+
+	public void setPersist(PipelineStageProperties persist) {
+		this.persist = persist;
+	}
+}
@@ -0,0 +1,41 @@
+package com.mcs.mergeminder.properties;
+
+/**
+ * Settings of one stage of the minding pipeline.
+ */
+public class PipelineStageProperties {
+
+	/**
+	 * Items the stage works on at the same time.
+	 */
+	private int concurrency;
+	/**
+	 * Items that may wait for the stage.  Once it is full, the stage before it waits too.
+	 */
+	private int queueCapacity;
+
+	public PipelineStageProperties() {
+		this(4, 100);
+	}
+
+	public PipelineStageProperties(int concurrency, int queueCapacity) {
+		this.concurrency = concurrency;
+		this.queueCapacity = queueCapacity;
+	}
+
+	public int getConcurrency() {
+		return concurrency;
+	}
+
+	public void setConcurrency(int concurrency) {
+		this.concurrency = concurrency;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+}
@@ -0,0 +1,68 @@
+package com.mcs.mergeminder.properties;
+
+/**
+ * Settings of splitting the minded projects between several MergeMinder instances.
+ */
+public class ShardingProperties {
+
+	/**
+	 * Splits the projects between the instances sharing the database.  Off, every instance minds every project.
+	 */
+	private boolean enabled = false;
+	/**
+	 * Number of shards the projects are hashed into.  Must be the same on every instance.
+	 */
+	private int shards = 16;
+	/**
+	 * Name of this instance in the lease table.  Defaults to the host name and a random suffix.
+	 */
+	private String nodeId;
+	/**
+	 * Seconds a lease lasts without being renewed.  An instance that stops renewing loses its shards after this long.
+	 */
+	private int leaseSeconds = 30;
+	/**
+	 * Seconds between renewing leases and rebalancing shards.  Must be well below the lease time.
+	 */
+	private int heartbeatSeconds = 10;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getShards() {
+		return shards;
+	}
+
+	public void setShards(int shards) {
+		this.shards = shards;
+	}
+
+	public String getNodeId() {
+		return nodeId;
+	}
+
+	public void setNodeId(String nodeId) {
+		this.nodeId = nodeId;
+	}
+
+	public int getLeaseSeconds() {
+		return leaseSeconds;
+	}
+
+	public void setLeaseSeconds(int leaseSeconds) {
+		this.leaseSeconds = leaseSeconds;
+	}
+
+	public int getHeartbeatSeconds() {
+		return heartbeatSeconds;
+	}
+
+	public void setHeartbeatSeconds(int heartbeatSeconds) {
+		this.heartbeatSeconds = heartbeatSeconds;
+	}
+}
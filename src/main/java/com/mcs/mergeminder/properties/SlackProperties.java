@@ -15,6 +15,10 @@ public class SlackProperties {
 	@NotNull String signingSecret;
 	String notificationChannel = null;
 	Boolean notifyUsers = false;
+	/**
+	 * Circuit breaker and bulkhead around Slack calls.
+	 */
+	CircuitBreakerProperties circuitBreaker = new CircuitBreakerProperties();
 
 	public String getBotToken() {
 		return botToken;
@@ -48,4 +52,12 @@ public class SlackProperties {
 		this.notifyUsers = notifyUsers;
 	}
 
+	public CircuitBreakerProperties getCircuitBreaker() {
+		return circuitBreaker;
+	}
+
+	public void setCircuitBreaker(CircuitBreakerProperties circuitBreaker) {
+		this.circuitBreaker = circuitBreaker;
+	}
+
 }
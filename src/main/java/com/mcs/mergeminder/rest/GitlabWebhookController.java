@@ -0,0 +1,61 @@
+package com.mcs.mergeminder.rest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import io.swagger.v3.oas.annotations.Operation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.mcs.mergeminder.gitlab.GitlabWebhookHandler;
+import com.mcs.mergeminder.properties.GitlabProperties;
+
+@RestController
+public class GitlabWebhookController {
+
+	private static final Logger logger = LoggerFactory.getLogger(GitlabWebhookController.class);
+
+	private final GitlabWebhookHandler gitlabWebhookHandler;
+	private final GitlabProperties gitlabProperties;
+
+	public GitlabWebhookController(GitlabWebhookHandler gitlabWebhookHandler, GitlabProperties gitlabProperties) {
+		this.gitlabWebhookHandler = gitlabWebhookHandler;
+		this.gitlabProperties = gitlabProperties;
+	}
+
+	/**
+	 * Receives merge request and note events from a GitLab webhook.  The event is acknowledged right away and handled
+	 * in the background.
+	 *
+	 * @param token value of the <tt>X-Gitlab-Token</tt> header, must match <tt>mm.gitlab.webhookSecret</tt>
+	 * @param eventType value of the <tt>X-Gitlab-Event</tt> header
+	 * @param event the event payload
+	 * @return
+	 */
+	@Operation(summary="Receives merge request and note events from GitLab webhooks.")
+	@PostMapping("/webhooks/gitlab")
+	public ResponseEntity<Void> receiveEvent(@RequestHeader(value = "X-Gitlab-Token", required = false) String token,
+		@RequestHeader(value = "X-Gitlab-Event", required = false) String eventType, @RequestBody JsonNode event) {
+		if (!isValidToken(token)) {
+			logger.warn("Rejected GitLab webhook event with a missing or invalid secret token.");
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+		}
+		this.gitlabWebhookHandler.submitEvent(eventType, event);
+		return ResponseEntity.ok().build();
+	}
+
+	boolean isValidToken(String token) {
+		String secret = this.gitlabProperties.getWebhookSecret();
+		if (secret == null || secret.isEmpty() || token == null) {
+			return false;
+		}
+		return MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+	}
+}
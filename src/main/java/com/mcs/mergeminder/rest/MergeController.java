@@ -19,6 +19,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.mcs.mergeminder.MergeMinder;
+import com.mcs.mergeminder.ProjectPollSchedule;
 import com.mcs.mergeminder.dao.MergeMinderDb;
 import com.mcs.mergeminder.dto.MergeRequestModel;
 import com.mcs.mergeminder.dto.MinderProjectsModel;
@@ -26,6 +27,7 @@ import com.mcs.mergeminder.dto.SlackUserModel;
 import com.mcs.mergeminder.dto.SlackUserSearchCriteria;
 import com.mcs.mergeminder.dto.UserMappingModel;
 import com.mcs.mergeminder.slack.SlackIntegration;
+import com.mcs.mergeminder.util.SingleFlight;
 
 @RestController
 public class MergeController {
@@ -33,24 +35,46 @@ public class MergeController {
 	private final MergeMinder mergeMinder;
 	private final MergeMinderDb mergeMinderDb;
 	private final SlackIntegration slackIntegration;
+	private final ProjectPollSchedule projectPollSchedule;
 
-	public MergeController(MergeMinder mergeMinder, MergeMinderDb mergeMinderDb, SlackIntegration slackIntegration) {
+	public MergeController(MergeMinder mergeMinder, MergeMinderDb mergeMinderDb, SlackIntegration slackIntegration, ProjectPollSchedule projectPollSchedule) {
 		this.mergeMinder = mergeMinder;
 		this.mergeMinderDb = mergeMinderDb;
 		this.slackIntegration = slackIntegration;
+		this.projectPollSchedule = projectPollSchedule;
 	}
 
 	/**
-	 * Kicks off the minding process.
+	 * Kicks off the minding process in the background.  Its progress is reported by <tt>/mind/status</tt>.
 	 *
 	 * @return
 	 */
 	@Operation(summary="Kicks off the minding process immediately, instead of waiting for the timer to run.")
 	@GetMapping("/mind")
 	public ResponseEntity<String> mind() {
-		kickoffMind();
+		boolean alreadyRunning = mergeMinder.triggerMinding();
 		String jsonContent = Json.createObjectBuilder()
-			.add("status", "Ran merges.")
+			.add("status", alreadyRunning ? "Minding is already running.  Queued a follow-up run." : "Started minding merges.")
+			.build()
+			.toString();
+		return ResponseEntity.ok(jsonContent);
+	}
+
+	/**
+	 * Reports on the minding cycles.
+	 *
+	 * @return
+	 */
+	@Operation(summary="Reports when the last minding cycle started and finished, and how many triggers were folded into follow-up runs.")
+	@GetMapping("/mind/status")
+	public ResponseEntity<String> mindStatus() {
+		SingleFlight mindingFlight = mergeMinder.getMindingFlight();
+		String jsonContent = Json.createObjectBuilder()
+			.add("running", mindingFlight.isRunning())
+			.add("lastStartedAt", String.valueOf(mindingFlight.getLastStartedAt()))
+			.add("lastFinishedAt", String.valueOf(mindingFlight.getLastFinishedAt()))
+			.add("runs", mindingFlight.getRuns())
+			.add("coalescedTriggers", mindingFlight.getCoalesced())
 			.build()
 			.toString();
 		return ResponseEntity.ok(jsonContent);
@@ -106,6 +130,17 @@ public class MergeController {
 		return mergeMinderDb.getMinderProjects();
 	}
 
+	/**
+	 * Gets the polling interval of each project, when adaptive polling is on.
+	 *
+	 * @return
+	 */
+	@Operation(summary="Gets the interval each Gitlab project is currently polled at, and when it is polled next.  Empty unless adaptive polling is on.")
+	@GetMapping("/projects/polling")
+	public List<ProjectPollSchedule.ProjectPoll> getProjectPolling() {
+		return projectPollSchedule.getProjectPolls();
+	}
+
 	/**
 	 * Adds a new project to be tracked.
 	 *
@@ -198,11 +233,6 @@ public class MergeController {
 		return ResponseEntity.ok(matchingUsers);
 	}
 
-	@Async
-	void kickoffMind() {
-		mergeMinder.doMinding();
-	}
-
 	@Async
 	void kickoffPurge() {
 		mergeMinder.doPurge();
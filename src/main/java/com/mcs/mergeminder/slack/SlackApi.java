@@ -1,13 +1,15 @@
 package com.mcs.mergeminder.slack;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.mcs.mergeminder.exception.CallNotPermittedException;
 import com.mcs.mergeminder.exception.SlackIntegrationException;
+import com.mcs.mergeminder.util.CircuitBreaker;
 import com.slack.api.Slack;
 import com.slack.api.methods.MethodsClient;
 import com.slack.api.methods.request.channels.ChannelsListRequest;
@@ -27,15 +29,18 @@ public class SlackApi {
 	private Slack slack;
 
 	private MethodsClient methods;
+	/* Guards every Web API call, so a Slack outage doesn't leave minding threads waiting on it. */
+	private final CircuitBreaker circuitBreaker;
 	/* Uncomment when rtm is used -- ie, typing event */
 	//	private RTMClient rtm;
 
 	/* Cache for IM channel IDs. */
 	Map<String, String> directChannelIdCache;
 
-	public SlackApi(String botToken) throws SlackIntegrationException {
+	public SlackApi(String botToken, CircuitBreaker circuitBreaker) throws SlackIntegrationException {
+		this.circuitBreaker = circuitBreaker;
 		try {
-			this.directChannelIdCache = new HashMap<>();
+			this.directChannelIdCache = new ConcurrentHashMap<>();
 			this.slack = Slack.getInstance();
 
 			// Initialize an API Methods client with the given token
@@ -54,6 +59,7 @@ public class SlackApi {
 	 *
 	 * @param channelId
 	 * @param message
+	 * @return Slack's response, or null if the message could not be sent.
 	 */
 	public ChatPostMessageResponse sendMessage(String channelId, SlackPreparedMessage message) {
 		try {
@@ -65,7 +71,10 @@ public class SlackApi {
 				.build();
 
 			// Get a response as a Java object
-			return this.methods.chatPostMessage(request);
+			return call(() -> this.methods.chatPostMessage(request));
+		} catch (CallNotPermittedException e) {
+			logger.warn("Message to {} not sent: {}", channelId, e.getMessage());
+			return null;
 		} catch (Exception e) {
 			logger.error("Could not send message through slack!", e);
 			return null;
@@ -78,7 +87,7 @@ public class SlackApi {
 	 *
 	 * @param channel
 	 * @param message
-	 * @return
+	 * @return Slack's response, or null if the message could not be sent.
 	 */
 	public ChatPostMessageResponse sendMessage(SlackChannel channel, String message) {
 		SlackPreparedMessage preparedMessage = SlackPreparedMessage.builder()
@@ -108,6 +117,7 @@ public class SlackApi {
 	 *
 	 * @param user
 	 * @param messageContent
+	 * @return Slack's response, or null if the message could not be sent.
 	 */
 	public ChatPostMessageResponse sendMessageToUser(SlackUser user, SlackPreparedMessage messageContent) {
 		try {
@@ -126,11 +136,14 @@ public class SlackApi {
 				.build();
 
 			// Step 3: Send the message, get the response.
-			ChatPostMessageResponse response = this.methods.chatPostMessage(request);
+			ChatPostMessageResponse response = call(() -> this.methods.chatPostMessage(request));
 
 			//TODO: Handle the response -- look for a failure?
 
 			return response;
+		} catch (CallNotPermittedException e) {
+			logger.warn("Direct message to {} not sent: {}", user.getUserName(), e.getMessage());
+			return null;
 		} catch (Exception e) {
 			logger.error("Could not send direct message through slack!", e);
 			return null;
@@ -154,6 +167,33 @@ public class SlackApi {
 	// Private Methods
 	///////////////////
 
+	/**
+	 * Makes a Web API call through the circuit breaker.  The client throws for connection failures and non 200
+	 * responses, rate limiting included, and those count as failures.  A response that is not "ok" is about the
+	 * request itself, like a channel that does not exist, and says nothing about Slack's health.
+	 *
+	 * @param call
+	 * @return the call's response
+	 * @throws CallNotPermittedException if the circuit is open or too many calls are already waiting on Slack.
+	 */
+	private <T> T call(SlackCall<T> call) throws Exception {
+		this.circuitBreaker.acquirePermission();
+		try {
+			T response = call.call();
+			this.circuitBreaker.onSuccess();
+			return response;
+		} catch (Exception e) {
+			this.circuitBreaker.onFailure();
+			throw e;
+		}
+	}
+
+	@FunctionalInterface
+	private interface SlackCall<T> {
+		T call() throws Exception;
+	}
+
+
 	/**
 	 * Gets a direct channel ID between MergeMinder and the given Slack user (U#######)
 	 *
@@ -169,12 +209,14 @@ public class SlackApi {
 					.build();
 
 				// Get a response as a Java object
-				ConversationsOpenResponse response = this.methods.conversationsOpen(request);
+				ConversationsOpenResponse response = call(() -> this.methods.conversationsOpen(request));
 
 				directChannelId = response.getChannel().getId();
 				this.directChannelIdCache.put(userId, directChannelId);
 			}
 			return directChannelId;
+		} catch (CallNotPermittedException e) {
+			throw e;
 		} catch (Exception e) {
 			throw new SlackIntegrationException("Could not find direct channel ID for message.", e);
 		}
@@ -13,6 +13,7 @@ import org.gitlab4j.api.models.MergeRequest;
 import org.gitlab4j.api.models.User;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
@@ -26,6 +27,7 @@ import com.mcs.mergeminder.dto.SlackUserSearchCriteria;
 import com.mcs.mergeminder.dto.UserMappingModel;
 import com.mcs.mergeminder.properties.MergeMinderProperties;
 import com.mcs.mergeminder.properties.SlackProperties;
+import com.mcs.mergeminder.util.CircuitBreaker;
 import com.ullink.slack.simpleslackapi.SlackChannel;
 import com.ullink.slack.simpleslackapi.SlackPreparedMessage;
 import com.ullink.slack.simpleslackapi.SlackSession;
@@ -48,8 +50,11 @@ public class SlackIntegration {
 	private final SlackProperties slackProperties;
 	private SlackSession slackSession;
 	private SlackApi slackApi;
+	private final CircuitBreaker circuitBreaker;
 
-	public SlackIntegration(MergeMinderDb mergeMinderDb, ConversationListener conversationListener, MergeMinderProperties mergeMinderProperties, SlackProperties slackProperties) {
+	public SlackIntegration(MergeMinderDb mergeMinderDb, ConversationListener conversationListener, MergeMinderProperties mergeMinderProperties, SlackProperties slackProperties,
+		@Qualifier("slackCircuitBreaker") CircuitBreaker circuitBreaker) {
+		this.circuitBreaker = circuitBreaker;
 		this.mergeMinderDb = mergeMinderDb;
 		this.conversationListener = conversationListener;
 		this.mergeMinderProperties = mergeMinderProperties;
@@ -71,7 +76,7 @@ public class SlackIntegration {
 			this.slackProperties.getNotifyUsers() ? "ENABLED" : "DISABLED");
 		logger.info("Admin users: {}", StringUtils.collectionToCommaDelimitedString(this.mergeMinderProperties.getAdminEmails()));
 
-		SlackApi slackApi = new SlackApi(this.slackProperties.getBotToken());
+		SlackApi slackApi = new SlackApi(this.slackProperties.getBotToken(), this.circuitBreaker);
 		this.slackApi = slackApi;
 	}
 
@@ -88,25 +93,37 @@ public class SlackIntegration {
 		return this.slackSession;
 	}
 
+	/**
+	 * Checks if Slack messages are currently being sent, ie, the Slack circuit breaker is not open.
+	 *
+	 * @return
+	 */
+	public boolean isAvailable() {
+		return !this.circuitBreaker.isOpen();
+	}
+
 	public SlackApi getSlackApi() {
 		return this.slackApi;
 	}
 
 	/**
-	 * Create notification(s) for this MR.
+	 * Create notification(s) for this MR.  The user is only messaged once the channel message went out, so a retry
+	 * after a failure doesn't message the user twice.
 	 *
 	 * @param mrInfo
 	 * @param reminderLength
 	 * @param userEmail
+	 * @return false if a message could not be sent to Slack and the reminder should be tried again.
 	 */
-	public void notifyMergeRequest(MergeRequestAssignmentInfo mrInfo, ReminderLength reminderLength, String userEmail) {
+	public boolean notifyMergeRequest(MergeRequestAssignmentInfo mrInfo, ReminderLength reminderLength, String userEmail) {
 		// Always notify the channel
-		if (this.slackProperties.getNotificationChannel() != null) {
-			notifyChannelOfMergeInformation(mrInfo);
+		if (this.slackProperties.getNotificationChannel() != null && !notifyChannelOfMergeInformation(mrInfo)) {
+			return false;
 		}
 		if (this.slackProperties.getNotifyUsers() && reminderLength.shouldSendAlert()) {
-			notifyUser(mrInfo, reminderLength, userEmail);
+			return notifyUser(mrInfo, reminderLength, userEmail);
 		}
+		return true;
 	}
 
 	/**
@@ -115,8 +132,9 @@ public class SlackIntegration {
 	 * @param mrInfo
 	 * @param reminderLength
 	 * @param userEmail
+	 * @return false if the message could not be sent.  A user that can't be found is not retried.
 	 */
-	private void notifyUser(MergeRequestAssignmentInfo mrInfo, ReminderLength reminderLength, String userEmail) {
+	private boolean notifyUser(MergeRequestAssignmentInfo mrInfo, ReminderLength reminderLength, String userEmail) {
 		// first check the mapping table
 		UserMappingModel userMapping = this.mergeMinderDb.getUserMappingByGitlabUsername(mrInfo.getAssignee().getUsername());
 		SlackUser user = findUserFromPredefinedMapping(userMapping);
@@ -180,11 +198,12 @@ public class SlackIntegration {
 					.message(messageForUser)
 					.unfurl(false)
 					.build();
-				this.slackApi.sendMessageToUser(user, slackPreparedMessage);
+				return this.slackApi.sendMessageToUser(user, slackPreparedMessage) != null;
 			}
 		} else {
 			logger.warn("Could not send user notification because user with email {} couldn't be located.", userEmail);
 		}
+		return true;
 	}
 
 	/**
@@ -223,8 +242,9 @@ public class SlackIntegration {
 	 * Sends a message to the configured notification channel about the merge status.
 	 *
 	 * @param mrInfo
+	 * @return false if the message could not be sent.  A channel that can't be found is not retried.
 	 */
-	private void notifyChannelOfMergeInformation(MergeRequestAssignmentInfo mrInfo) {
+	private boolean notifyChannelOfMergeInformation(MergeRequestAssignmentInfo mrInfo) {
 		StringBuilder sb = new StringBuilder();
 		sb.append("[*").append(mrInfo.getFullyQualifiedProjectName()).append("*] ")
 			.append(buildMRNameSection(mrInfo.getMr()))
@@ -240,10 +260,10 @@ public class SlackIntegration {
 			.build();
 		SlackChannel channel = this.slackSession.findChannelByName(this.slackProperties.getNotificationChannel());
 		if (channel != null) {
-			this.slackApi.sendMessage(channel, preparedMessage);
-		} else {
-			logger.warn("Could not send notifications to slack channel #{}", this.slackProperties.getNotificationChannel());
+			return this.slackApi.sendMessage(channel, preparedMessage) != null;
 		}
+		logger.warn("Could not send notifications to slack channel #{}", this.slackProperties.getNotificationChannel());
+		return true;
 	}
 
 	/**
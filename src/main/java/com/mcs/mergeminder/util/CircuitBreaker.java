@@ -0,0 +1,170 @@
+package com.mcs.mergeminder.util;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mcs.mergeminder.exception.CallNotPermittedException;
+import com.mcs.mergeminder.properties.CircuitBreakerProperties;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Circuit breaker and bulkhead for calls to an external service.  After <tt>failureThreshold</tt> consecutive
+ * failures the circuit opens and calls are rejected right away.  Once <tt>openSeconds</tt> have passed, a single probe
+ * call is let through (half-open): if it succeeds the circuit closes, if it fails the circuit opens again.
+ * Independently, at most <tt>maxConcurrentCalls</tt> calls may be in flight, so a slow service can't hold on to every
+ * thread.  Calls beyond that wait up to <tt>maxWaitMillis</tt> for one of them to finish.
+ * <p>
+ * Every call that was permitted must be followed by exactly one of {@link #onSuccess()} or {@link #onFailure()}.
+ */
+public class CircuitBreaker {
+
+	private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+	/* Bulkhead size when neither maxConcurrentCalls nor the number of calling threads is given. */
+	private static final int DEFAULT_MAX_CONCURRENT_CALLS = 20;
+
+	public enum State {
+		CLOSED, HALF_OPEN, OPEN
+	}
+
+	private final String name;
+	private final int failureThreshold;
+	private final long openNanos;
+	private final Semaphore bulkhead;
+	private final int maxConcurrentCalls;
+	private final long maxWaitMillis;
+
+	private State state = State.CLOSED;
+	private int consecutiveFailures;
+	private long openedAtNanos;
+	private final AtomicLong rejected = new AtomicLong();
+
+	public CircuitBreaker(String name, CircuitBreakerProperties properties, MeterRegistry meterRegistry) {
+		this(name, properties, DEFAULT_MAX_CONCURRENT_CALLS, meterRegistry);
+	}
+
+	/**
+	 * @param name
+	 * @param properties
+	 * @param callerThreads threads that call the service.  The bulkhead lets them all through unless
+	 * <tt>maxConcurrentCalls</tt> is set.
+	 * @param meterRegistry
+	 */
+	public CircuitBreaker(String name, CircuitBreakerProperties properties, int callerThreads, MeterRegistry meterRegistry) {
+		this.name = name;
+		this.failureThreshold = Math.max(1, properties.getFailureThreshold());
+		this.openNanos = Duration.ofSeconds(properties.getOpenSeconds()).toNanos();
+		this.maxConcurrentCalls = Math.max(1, properties.getMaxConcurrentCalls() > 0 ? properties.getMaxConcurrentCalls() : callerThreads);
+		this.maxWaitMillis = Math.max(0, properties.getMaxWaitMillis());
+		this.bulkhead = new Semaphore(this.maxConcurrentCalls);
+		Gauge.builder("mergeminder.circuit.state", this, breaker -> breaker.getState().ordinal())
+			.tag("name", name)
+			.description("Circuit state: 0 closed, 1 half-open, 2 open")
+			.register(meterRegistry);
+		FunctionCounter.builder("mergeminder.circuit.rejected", this.rejected, AtomicLong::get)
+			.tag("name", name)
+			.description("Calls rejected because the circuit was open or the bulkhead was full")
+			.register(meterRegistry);
+		Gauge.builder("mergeminder.bulkhead.active", this, CircuitBreaker::getActiveCalls)
+			.tag("name", name)
+			.description("Calls currently in flight")
+			.register(meterRegistry);
+	}
+
+	/**
+	 * Asks to make a call, waiting up to <tt>maxWaitMillis</tt> while the bulkhead is full.
+	 *
+	 * @throws CallNotPermittedException if the circuit is open, a half-open probe is already in flight, or the
+	 * bulkhead stayed full.
+	 */
+	public void acquirePermission() {
+		synchronized (this) {
+			if (this.state == State.OPEN) {
+				if (System.nanoTime() - this.openedAtNanos < this.openNanos) {
+					reject("circuit is open");
+				}
+				logger.info("[{}] Circuit half-open, letting a probe call through.", this.name);
+				this.state = State.HALF_OPEN;
+			} else if (this.state == State.HALF_OPEN) {
+				reject("circuit is half-open and the probe call has not finished");
+			}
+		}
+		boolean permitted;
+		try {
+			permitted = this.bulkhead.tryAcquire(this.maxWaitMillis, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			permitted = false;
+		}
+		if (!permitted) {
+			synchronized (this) {
+				if (this.state == State.HALF_OPEN) {
+					// the probe never happened, let the next call try again.
+					this.state = State.OPEN;
+				}
+			}
+			reject(this.maxConcurrentCalls + " calls stayed in flight for " + this.maxWaitMillis + " ms");
+		}
+	}
+
+	/**
+	 * Records a permitted call that reached the service, even if the service rejected the request itself.
+	 */
+	public void onSuccess() {
+		this.bulkhead.release();
+		synchronized (this) {
+			if (this.state != State.CLOSED) {
+				logger.info("[{}] Call succeeded, closing the circuit.", this.name);
+			}
+			this.state = State.CLOSED;
+			this.consecutiveFailures = 0;
+		}
+	}
+
+	/**
+	 * Records a permitted call that failed because the service was unavailable or too slow.
+	 */
+	public void onFailure() {
+		this.bulkhead.release();
+		synchronized (this) {
+			this.consecutiveFailures++;
+			if (this.state == State.HALF_OPEN || (this.state == State.CLOSED && this.consecutiveFailures >= this.failureThreshold)) {
+				logger.warn("[{}] {} consecutive failure(s), opening the circuit for {} second(s).", this.name, this.consecutiveFailures,
+					Duration.ofNanos(this.openNanos).toSeconds());
+				this.state = State.OPEN;
+				this.openedAtNanos = System.nanoTime();
+			}
+		}
+	}
+
+	/**
+	 * @return true if calls are currently rejected without being made.
+	 */
+	public synchronized boolean isOpen() {
+		return this.state == State.OPEN && System.nanoTime() - this.openedAtNanos < this.openNanos;
+	}
+
+	public synchronized State getState() {
+		return this.state;
+	}
+
+	public int getActiveCalls() {
+		return this.maxConcurrentCalls - this.bulkhead.availablePermits();
+	}
+
+	public long getRejected() {
+		return this.rejected.get();
+	}
+
+	private void reject(String reason) {
+		this.rejected.incrementAndGet();
+		throw new CallNotPermittedException(this.name + " call not permitted, " + reason + ".");
+	}
+}
@@ -0,0 +1,39 @@
+package com.mcs.mergeminder.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the bounded thread pools used while minding.  Their threads are daemons, so they never keep the
+ * application from shutting down.
+ */
+public final class DaemonExecutors {
+
+	private DaemonExecutors() {
+	}
+
+	/**
+	 * Creates a thread pool of up to <tt>maxThreads</tt> daemon threads with an unbounded queue.
+	 *
+	 * @param threadNamePrefix prefix of the thread names, each thread is numbered after it
+	 * @param maxThreads most threads in the pool, at least 1
+	 * @return
+	 */
+	public static ExecutorService newExecutor(String threadNamePrefix, int maxThreads) {
+		int threads = Math.max(1, maxThreads);
+		AtomicInteger threadCount = new AtomicInteger();
+		ThreadFactory threadFactory = runnable -> {
+			Thread thread = new Thread(runnable, threadNamePrefix + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+		// the threads are only needed while minding runs, let them go in between.
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+}
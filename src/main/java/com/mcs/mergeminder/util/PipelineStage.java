@@ -0,0 +1,94 @@
+package com.mcs.mergeminder.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.mcs.mergeminder.properties.PipelineStageProperties;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * One stage of a pipeline: its own threads and its own bounded queue.  {@link #submit(Runnable)} waits while the
+ * queue is full, so a slow stage holds up the stage that feeds it instead of letting work pile up in memory.
+ * <p>
+ * Stages must only hand work forward, to later stages.  A stage that waited on an earlier one could deadlock.
+ */
+public class PipelineStage {
+
+	private final ExecutorService executor;
+	/* One permit per item the stage may hold, running or queued. */
+	private final Semaphore capacity;
+	private final AtomicInteger queued = new AtomicInteger();
+	private final AtomicInteger active = new AtomicInteger();
+	private final Timer latency;
+	private final Timer wait;
+
+	public PipelineStage(String name, PipelineStageProperties properties, MeterRegistry meterRegistry) {
+		int concurrency = Math.max(1, properties.getConcurrency());
+		this.capacity = new Semaphore(concurrency + Math.max(0, properties.getQueueCapacity()));
+		this.executor = DaemonExecutors.newExecutor("pipeline-" + name + "-", concurrency);
+		Gauge.builder("mergeminder.pipeline.queue", this.queued, AtomicInteger::get)
+			.tag("stage", name)
+			.description("Items waiting for the stage")
+			.register(meterRegistry);
+		Gauge.builder("mergeminder.pipeline.active", this.active, AtomicInteger::get)
+			.tag("stage", name)
+			.description("Items the stage is working on")
+			.register(meterRegistry);
+		this.latency = Timer.builder("mergeminder.pipeline.latency")
+			.tag("stage", name)
+			.description("Time the stage spent on each item, its count is the stage's throughput")
+			.register(meterRegistry);
+		this.wait = Timer.builder("mergeminder.pipeline.wait")
+			.tag("stage", name)
+			.description("Time items waited in the stage's queue")
+			.register(meterRegistry);
+	}
+
+	/**
+	 * Queues work for the stage, waiting while its queue is full.
+	 *
+	 * @param work
+	 * @throws InterruptedException if interrupted while waiting for room in the queue.
+	 */
+	public void submit(Runnable work) throws InterruptedException {
+		this.capacity.acquire();
+		this.queued.incrementAndGet();
+		long queuedAt = System.nanoTime();
+		try {
+			this.executor.execute(() -> {
+				this.queued.decrementAndGet();
+				this.active.incrementAndGet();
+				long startedAt = System.nanoTime();
+				this.wait.record(startedAt - queuedAt, TimeUnit.NANOSECONDS);
+				try {
+					work.run();
+				} finally {
+					this.latency.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+					this.active.decrementAndGet();
+					this.capacity.release();
+				}
+			});
+		} catch (RuntimeException e) {
+			this.queued.decrementAndGet();
+			this.capacity.release();
+			throw e;
+		}
+	}
+
+	public int getQueued() {
+		return this.queued.get();
+	}
+
+	public int getActive() {
+		return this.active.get();
+	}
+
+	public void shutdown() {
+		this.executor.shutdownNow();
+	}
+}
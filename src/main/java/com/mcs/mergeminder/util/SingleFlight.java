@@ -0,0 +1,115 @@
+package com.mcs.mergeminder.util;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Makes sure only one run of a task is in flight at a time.  A trigger that arrives while the task is running does not
+ * start a second run next to it, it is folded into a single follow-up run that starts once the current one finishes.
+ * However many triggers arrive during a run, they cause at most one follow-up run.
+ */
+public class SingleFlight {
+
+	private static final Logger logger = LoggerFactory.getLogger(SingleFlight.class);
+
+	private final String name;
+	private final Runnable task;
+
+	private boolean running;
+	private boolean followUp;
+	private volatile Instant lastStartedAt;
+	private volatile Instant lastFinishedAt;
+	private final AtomicLong runs = new AtomicLong();
+	private final AtomicLong coalesced = new AtomicLong();
+
+	public SingleFlight(String name, Runnable task, MeterRegistry meterRegistry) {
+		this.name = name;
+		this.task = task;
+		Gauge.builder("mergeminder.singleflight.running", this, flight -> flight.isRunning() ? 1 : 0)
+			.tag("name", name)
+			.description("1 while a run is in flight")
+			.register(meterRegistry);
+		FunctionCounter.builder("mergeminder.singleflight.runs", this.runs, AtomicLong::get)
+			.tag("name", name)
+			.description("Runs started, follow-up runs included")
+			.register(meterRegistry);
+		FunctionCounter.builder("mergeminder.singleflight.coalesced", this.coalesced, AtomicLong::get)
+			.tag("name", name)
+			.description("Triggers that arrived during a run and were folded into a follow-up run")
+			.register(meterRegistry);
+	}
+
+	/**
+	 * Runs the task, unless it is already running.  In that case a follow-up run is requested and this returns right
+	 * away.  The caller that starts a run also makes the follow-up runs requested while it was running.
+	 *
+	 * @return true if this call ran the task, false if it was folded into a follow-up run.
+	 */
+	public boolean trigger() {
+		synchronized (this) {
+			if (this.running) {
+				this.followUp = true;
+				this.coalesced.incrementAndGet();
+				logger.info("[{}] Already running, the trigger is folded into a follow-up run.", this.name);
+				return false;
+			}
+			this.running = true;
+		}
+		boolean more = true;
+		while (more) {
+			this.runs.incrementAndGet();
+			this.lastStartedAt = Instant.now();
+			try {
+				this.task.run();
+			} catch (RuntimeException | Error e) {
+				synchronized (this) {
+					// a follow-up requested during the failed run is dropped, the next trigger starts afresh.
+					this.followUp = false;
+					this.running = false;
+				}
+				throw e;
+			} finally {
+				this.lastFinishedAt = Instant.now();
+			}
+			synchronized (this) {
+				more = this.followUp;
+				this.followUp = false;
+				this.running = more;
+			}
+		}
+		return true;
+	}
+
+	public synchronized boolean isRunning() {
+		return this.running;
+	}
+
+	/**
+	 * @return when the last run started, or null if it never ran.
+	 */
+	public Instant getLastStartedAt() {
+		return this.lastStartedAt;
+	}
+
+	/**
+	 * @return when the last run finished, or null if no run finished yet.
+	 */
+	public Instant getLastFinishedAt() {
+		return this.lastFinishedAt;
+	}
+
+	public long getRuns() {
+		return this.runs.get();
+	}
+
+	public long getCoalesced() {
+		return this.coalesced.get();
+	}
+}
@@ -0,0 +1,50 @@
+package com.mcs.mergeminder
+
+import com.mcs.mergeminder.dao.MergeMinderDb
+import com.mcs.mergeminder.dto.MindingCheckpointModel
+import com.mcs.mergeminder.properties.MergeMinderProperties
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import spock.lang.Specification
+
+import java.time.Duration
+import java.time.Instant
+
+class CycleCheckpointerSpec extends Specification {
+
+    def mergeMinderDb = Mock(MergeMinderDb)
+    def cycleCheckpointer = new CycleCheckpointer(mergeMinderDb,
+            new ShardCoordinator(mergeMinderDb, new MergeMinderProperties(), new SimpleMeterRegistry()))
+
+    def 'a recent checkpoint is resumed and its completed runs are skipped'() {
+        given:
+        def stopped = new MindingCheckpointModel('minding', 'cycle-1', Date.from(Instant.now().minus(Duration.ofMinutes(2))))
+        stopped.completedRuns = 'frontend/ui\nbackend'
+        mergeMinderDb.getMindingCheckpoint('minding') >> stopped
+
+        when:
+        def alreadyMinded = cycleCheckpointer.begin()
+        cycleCheckpointer.completed('tools/cli')
+
+        then:
+        alreadyMinded == ['frontend/ui', 'backend'] as Set
+        1 * mergeMinderDb.saveMindingCheckpoint({ it.cycleId == 'cycle-1' && it.completedRuns == 'frontend/ui\nbackend\ntools/cli' }) >> { args -> args[0] }
+
+        when:
+        cycleCheckpointer.finish()
+
+        then:
+        1 * mergeMinderDb.removeMindingCheckpoint('minding')
+    }
+
+    def 'a new cycle is started when the checkpoint is too old to resume'() {
+        given:
+        mergeMinderDb.getMindingCheckpoint('minding') >> new MindingCheckpointModel('minding', 'cycle-1', Date.from(Instant.now().minus(Duration.ofHours(1))))
+
+        when:
+        def alreadyMinded = cycleCheckpointer.begin()
+
+        then:
+        alreadyMinded.isEmpty()
+        1 * mergeMinderDb.saveMindingCheckpoint({ it.cycleId != 'cycle-1' && it.completedRuns == '' }) >> { args -> args[0] }
+    }
+}
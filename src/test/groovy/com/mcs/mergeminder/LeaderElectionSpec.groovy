@@ -0,0 +1,87 @@
+package com.mcs.mergeminder
+
+import com.mcs.mergeminder.dao.LeaderLockRepository
+import com.mcs.mergeminder.dao.MergeMinderDb
+import com.mcs.mergeminder.dto.LeaderLockModel
+import com.mcs.mergeminder.properties.LeaderElectionProperties
+import com.mcs.mergeminder.properties.MergeMinderProperties
+import com.mcs.mergeminder.properties.ShardingProperties
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import spock.lang.Specification
+
+class LeaderElectionSpec extends Specification {
+
+    /* In memory stand-in for the LeaderLocks table, with the same conditional updates. */
+    Map<String, LeaderLockModel> locks = [:]
+
+    def lockRepository = [
+            existsById    : { name -> locks.containsKey(name) },
+            insertIfAbsent: { String name -> locks.putIfAbsent(name, new LeaderLockModel(name)) == null ? 1 : 0 },
+            acquire       : { String name, String owner, Date expiresAt, Date now ->
+                def lock = locks[name]
+                if (lock.owner == null || lock.owner == owner || lock.expiresAt.before(now)) {
+                    lock.owner = owner
+                    lock.expiresAt = expiresAt
+                    return 1
+                }
+                0
+            },
+            release       : { String name, String owner ->
+                def lock = locks[name]
+                if (lock.owner != owner) {
+                    return 0
+                }
+                lock.owner = null
+                lock.expiresAt = null
+                1
+            }
+    ] as LeaderLockRepository
+
+    def mergeMinderDb = new MergeMinderDb(null, null, null, null, null, lockRepository, null, null)
+
+    def 'only one instance leads, and another takes over once the leader\'s lock runs out'() {
+        given:
+        def registryA = new SimpleMeterRegistry()
+        def nodeA = election('node-a', registryA)
+        def nodeB = election('node-b', new SimpleMeterRegistry())
+
+        when:
+        nodeA.init()
+        nodeB.init()
+
+        then:
+        nodeA.isLeader()
+        !nodeB.isLeader()
+        registryA.get('mergeminder.leader').gauge().value() == 1
+        registryA.get('mergeminder.leader.lock.latency').timer().count() == 1
+
+        when: 'node-a stops renewing and its lock runs out'
+        nodeA.renewExecutor.shutdownNow()
+        locks[LeaderElection.SCHEDULER_LOCK].expiresAt = new Date(System.currentTimeMillis() - 1000)
+        nodeB.renew()
+        nodeA.renew()
+
+        then:
+        nodeB.isLeader()
+        !nodeA.isLeader()
+        registryA.get('mergeminder.leader.changes').counter().count() == 2
+
+        cleanup:
+        [nodeA, nodeB]*.shutdown()
+    }
+
+    def 'every instance leads when leader election is off'() {
+        expect:
+        new LeaderElection(mergeMinderDb, new MergeMinderProperties(), shardCoordinator(new MergeMinderProperties()), new SimpleMeterRegistry()).isLeader()
+    }
+
+    private LeaderElection election(String nodeId, SimpleMeterRegistry meterRegistry) {
+        def properties = new MergeMinderProperties(sharding: new ShardingProperties(nodeId: nodeId),
+                leaderElection: new LeaderElectionProperties(enabled: true, renewSeconds: 3600))
+        new LeaderElection(mergeMinderDb, properties, shardCoordinator(properties), meterRegistry)
+    }
+
+    private ShardCoordinator shardCoordinator(MergeMinderProperties properties) {
+        new ShardCoordinator(mergeMinderDb, properties, new SimpleMeterRegistry())
+    }
+}
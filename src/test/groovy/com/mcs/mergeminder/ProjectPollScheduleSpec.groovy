@@ -0,0 +1,56 @@
+package com.mcs.mergeminder
+
+import com.mcs.mergeminder.properties.AdaptivePollingProperties
+import com.mcs.mergeminder.properties.MergeMinderProperties
+import spock.lang.Specification
+
+import java.time.Duration
+import java.time.Instant
+
+class ProjectPollScheduleSpec extends Specification {
+
+    def runStart = Instant.parse('2024-03-04T10:00:00Z')
+    def pollSchedule = new ProjectPollSchedule(new MergeMinderProperties(
+            adaptivePolling: new AdaptivePollingProperties(enabled: true, minIntervalSeconds: 300, maxIntervalSeconds: 1200)))
+
+    def 'idle projects back off up to the maximum interval and active ones return to the minimum'() {
+        given:
+        def intervals = []
+
+        when:
+        4.times {
+            pollSchedule.polled('side/project', runStart, runStart)
+            intervals << pollSchedule.projectPolls[0].intervalSeconds
+        }
+
+        then:
+        intervals == [300, 600, 1200, 1200]
+        !pollSchedule.isDue('side/project', runStart.plus(Duration.ofMinutes(10)))
+        pollSchedule.isDue('side/project', runStart.plus(Duration.ofMinutes(20)))
+        pollSchedule.isDue('never/polled', runStart)
+
+        when:
+        pollSchedule.markActive('side/project')
+        pollSchedule.polled('side/project', runStart, Instant.now())
+
+        then:
+        pollSchedule.projectPolls[0].intervalSeconds == 300
+        !pollSchedule.projectPolls[0].active
+    }
+
+    def 'activity after the run finished counts towards the next poll'() {
+        given:
+        def finishedAt = Instant.now()
+        pollSchedule.polled('side/project', runStart, finishedAt)
+        pollSchedule.polled('side/project', runStart, finishedAt)
+
+        when: 'a webhook marks the project active before the cycle gets to record the poll'
+        Thread.sleep(5)
+        pollSchedule.markActive('side/project')
+        pollSchedule.polled('side/project', runStart, finishedAt)
+
+        then:
+        pollSchedule.projectPolls[0].active
+        pollSchedule.projectPolls[0].intervalSeconds == 300
+    }
+}
@@ -0,0 +1,71 @@
+package com.mcs.mergeminder
+
+import com.mcs.mergeminder.dao.MergeMinderDb
+import com.mcs.mergeminder.dto.MergeRequestModel
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.time.Duration
+import java.time.Instant
+
+class ReminderSchedulerSpec extends Specification {
+
+    def assignedAt = Instant.parse('2024-03-04T10:15:00Z')
+    def reminderScheduler = new ReminderScheduler(Mock(MergeMinderDb), new SimpleMeterRegistry())
+
+    @Unroll
+    def 'next reminder after one sent at #lastReminderSentAt hours is due #expectedHours hours after assignment'() {
+        expect:
+        ReminderScheduler.getNextDueAt(mergeRequest(1L, lastReminderSentAt)) == (expectedHours == null ? null : assignedAt.plus(Duration.ofHours(expectedHours)))
+
+        where:
+        lastReminderSentAt | expectedHours
+        null               | 0
+        -1L                | 0
+        0L                 | 2
+        3L                 | 4
+        4L                 | 6
+        30L                | 48
+        48L                | null
+    }
+
+    def 'due MRs come off the queue soonest first and rescheduling replaces the earlier due time'() {
+        given:
+        reminderScheduler.schedule(mergeRequest(1L, 4L))
+        reminderScheduler.schedule(mergeRequest(2L, 0L))
+        reminderScheduler.schedule(mergeRequest(3L, 0L))
+        reminderScheduler.schedule(mergeRequest(3L, 12L))
+
+        when:
+        def due = reminderScheduler.pollDue(assignedAt.plus(Duration.ofHours(7)))
+
+        then:
+        due*.id == [2L, 1L]
+        reminderScheduler.size() == 1
+
+        when:
+        reminderScheduler.cancel(3L)
+
+        then:
+        reminderScheduler.pollDue(assignedAt.plus(Duration.ofDays(3))).isEmpty()
+        reminderScheduler.size() == 0
+        reminderScheduler.queueSize() == 0
+    }
+
+    def 'recording an MR again with the same due time keeps a single queue entry with the latest model'() {
+        given:
+        def latest = mergeRequest(1L, 4L)
+        100.times { reminderScheduler.schedule(mergeRequest(1L, 4L)) }
+        reminderScheduler.schedule(latest)
+
+        expect:
+        reminderScheduler.size() == 1
+        reminderScheduler.queueSize() == 1
+        reminderScheduler.pollDue(assignedAt.plus(Duration.ofHours(6))).first().is(latest)
+    }
+
+    private MergeRequestModel mergeRequest(Long id, Long lastReminderSentAt) {
+        new MergeRequestModel(id: id, project: 'frontend/ui', mrId: id, assignedAt: Date.from(assignedAt), lastReminderSentAt: lastReminderSentAt)
+    }
+}
@@ -0,0 +1,99 @@
+package com.mcs.mergeminder
+
+import com.mcs.mergeminder.dao.MergeMinderDb
+import com.mcs.mergeminder.dao.MinderNodeRepository
+import com.mcs.mergeminder.dao.ShardLeaseRepository
+import com.mcs.mergeminder.dto.MinderNodeModel
+import com.mcs.mergeminder.dto.ShardLeaseModel
+import com.mcs.mergeminder.properties.MergeMinderProperties
+import com.mcs.mergeminder.properties.ShardingProperties
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import spock.lang.Specification
+
+class ShardCoordinatorSpec extends Specification {
+
+    /* In memory stand-in for the ShardLeases and MinderNodes tables, with the same conditional updates. */
+    Map<Integer, ShardLeaseModel> leases = new TreeMap<>()
+    Map<String, MinderNodeModel> nodes = [:]
+
+    def leaseRepository = [
+            existsById              : { shard -> leases.containsKey(shard) },
+            insertIfAbsent          : { Integer shard -> leases.putIfAbsent(shard, new ShardLeaseModel(shard)) == null ? 1 : 0 },
+            findAllByOrderByShardAsc: { -> leases.values().collect { new ShardLeaseModel(shard: it.shard, owner: it.owner, expiresAt: it.expiresAt) } },
+            claim                   : { Integer shard, String owner, Date expiresAt, Date now ->
+                def lease = leases[shard]
+                if (lease.owner == null || lease.owner == owner || lease.expiresAt.before(now)) {
+                    lease.owner = owner
+                    lease.expiresAt = expiresAt
+                    return 1
+                }
+                0
+            },
+            renew                   : { String owner, Date expiresAt ->
+                def owned = leases.values().findAll { it.owner == owner }
+                owned.each { it.expiresAt = expiresAt }
+                owned.size()
+            },
+            release                 : { Integer shard, String owner ->
+                def lease = leases[shard]
+                if (lease.owner != owner) {
+                    return 0
+                }
+                lease.owner = null
+                lease.expiresAt = null
+                1
+            }
+    ] as ShardLeaseRepository
+
+    def nodeRepository = [
+            save                                 : { MinderNodeModel node -> nodes[node.nodeId] = node },
+            findByLastHeartbeatAfterOrderByNodeIdAsc: { Date after -> nodes.values().findAll { it.lastHeartbeat.after(after) }.sort { it.nodeId } },
+            deleteById                           : { String nodeId -> nodes.remove(nodeId) }
+    ] as MinderNodeRepository
+
+    def mergeMinderDb = new MergeMinderDb(null, null, null, leaseRepository, nodeRepository, null, null, null)
+
+    def 'shards spread evenly over the nodes and a dead node\'s shards are taken over once its leases run out'() {
+        given:
+        def nodeA = coordinator('node-a')
+        def nodeB = coordinator('node-b')
+        def nodeC = coordinator('node-c')
+        def all = [nodeA, nodeB, nodeC]
+
+        when:
+        all*.init()
+        2.times { all*.heartbeat() }
+
+        then:
+        all*.ownedShards*.size() == [6, 5, 5]
+        all.sum { it.ownedShards } as Set == (0..15) as Set
+        (0..15).every { shard -> leases[shard].owner != null }
+
+        when: 'node-c stops heartbeating and its leases run out'
+        nodeC.heartbeatExecutor.shutdownNow()
+        def longAgo = new Date(System.currentTimeMillis() - 60_000)
+        nodes['node-c'].lastHeartbeat = longAgo
+        leases.values().findAll { it.owner == 'node-c' }.each { it.expiresAt = longAgo }
+        [nodeA, nodeB]*.heartbeat()
+
+        then:
+        [nodeA, nodeB]*.ownedShards*.size() == [8, 8]
+        (nodeA.ownedShards + nodeB.ownedShards) == (0..15) as Set
+
+        and: 'a project is minded by exactly one live node'
+        [nodeA, nodeB].count { it.isMinded('frontend/ui-projeckt-x') } == 1
+
+        cleanup:
+        all*.shutdown()
+    }
+
+    def 'every node minds every project when sharding is off'() {
+        expect:
+        new ShardCoordinator(mergeMinderDb, new MergeMinderProperties(), new SimpleMeterRegistry()).isMinded('frontend/ui-projeckt-x')
+    }
+
+    private ShardCoordinator coordinator(String nodeId) {
+        def properties = new MergeMinderProperties(sharding: new ShardingProperties(enabled: true, shards: 16, nodeId: nodeId, heartbeatSeconds: 3600))
+        new ShardCoordinator(mergeMinderDb, properties, new SimpleMeterRegistry())
+    }
+}
@@ -0,0 +1,55 @@
+package com.mcs.mergeminder.gitlab
+
+import com.mcs.mergeminder.properties.GitlabProperties
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.gitlab4j.api.models.Note
+import spock.lang.Specification
+
+class AssignmentNoteScannerSpec extends Specification {
+
+    def restClient = Mock(GitlabRestClient)
+    def meterRegistry = new SimpleMeterRegistry()
+    def scanner = new AssignmentNoteScanner(new GitlabProperties(notesPageSize: 2), restClient, meterRegistry)
+
+    def 'the assignment is found on a later page and the scan stops there'() {
+        when:
+        def assignment = scanner.findLastAssignment(15L, 7L)
+
+        then:
+        1 * restClient.getMergeRequestNotes(15L, 7L, 1, 2) >> [note('looks good'), note('one more thing')]
+        1 * restClient.getMergeRequestNotes(15L, 7L, 2, 2) >> [note('fixed'), note('assigned to @jsmith')]
+        0 * restClient.getMergeRequestNotes(15L, 7L, 3, 2)
+        assignment.body == 'assigned to @jsmith'
+        pagesRecorded() == 2
+    }
+
+    def 'the scan stops on a short page when the MR was never assigned'() {
+        when:
+        def assignment = scanner.findLastAssignment(15L, 7L)
+
+        then:
+        1 * restClient.getMergeRequestNotes(15L, 7L, 1, 2) >> [note('looks good'), note('one more thing')]
+        1 * restClient.getMergeRequestNotes(15L, 7L, 2, 2) >> [note('fixed')]
+        0 * restClient.getMergeRequestNotes(15L, 7L, 3, 2)
+        assignment == null
+        pagesRecorded() == 2
+    }
+
+    def 'an MR without notes takes a single page'() {
+        when:
+        def assignment = scanner.findLastAssignment(15L, 7L)
+
+        then:
+        1 * restClient.getMergeRequestNotes(15L, 7L, 1, 2) >> []
+        assignment == null
+        pagesRecorded() == 1
+    }
+
+    private static Note note(String body) {
+        new Note(body: body)
+    }
+
+    private double pagesRecorded() {
+        meterRegistry.get('mergeminder.gitlab.notes.pages').summary().totalAmount()
+    }
+}
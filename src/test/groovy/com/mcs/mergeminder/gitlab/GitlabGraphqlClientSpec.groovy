@@ -0,0 +1,59 @@
+package com.mcs.mergeminder.gitlab
+
+import com.mcs.mergeminder.properties.CircuitBreakerProperties
+import com.mcs.mergeminder.properties.GitlabProperties
+import com.mcs.mergeminder.util.CircuitBreaker
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.gitlab4j.api.GitLabApiException
+import org.springframework.boot.test.web.client.MockServerRestTemplateCustomizer
+import org.springframework.boot.web.client.RestTemplateBuilder
+import org.springframework.http.MediaType
+import spock.lang.Specification
+
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess
+
+class GitlabGraphqlClientSpec extends Specification {
+
+    def gitlabProperties = new GitlabProperties(url: 'https://gitlab.example.com/', accesstoken: 'token')
+    def customizer = new MockServerRestTemplateCustomizer()
+    def client = new GitlabGraphqlClient(gitlabProperties, new RestTemplateBuilder(customizer), new GitlabRateLimiter(gitlabProperties, new CircuitBreaker('gitlab', new CircuitBreakerProperties(), new SimpleMeterRegistry())))
+
+    def 'a page of open MRs is mapped with its last assignment'() {
+        given:
+        customizer.server.expect(requestTo('https://gitlab.example.com/api/graphql'))
+            .andExpect(header('Authorization', 'Bearer token'))
+            .andRespond(withSuccess(GitlabGraphqlClientSpec.getResource('/graphql/open-merge-requests.json').text, MediaType.APPLICATION_JSON))
+
+        when:
+        def mergeRequests = client.getOpenMergeRequests(15L, null, null)
+
+        then:
+        customizer.server.verify()
+        mergeRequests.size() == 1
+        with(mergeRequests[0]) {
+            mergeRequest.id == 99L
+            mergeRequest.iid == 1L
+            mergeRequest.projectId == 15L
+            mergeRequest.references.full == 'acme/widgets!1'
+            mergeRequest.labels == ['backend']
+            mergeRequest.author.username == 'jdoe'
+            mergeRequest.assignees*.username == ['jsmith']
+            lastAssignment.id == 500L
+            allNotesFetched
+        }
+    }
+
+    def 'an unknown project is reported as not found'() {
+        given:
+        customizer.server.expect(requestTo('https://gitlab.example.com/api/graphql'))
+            .andRespond(withSuccess('{"data": {"projects": {"nodes": []}}}', MediaType.APPLICATION_JSON))
+
+        when:
+        client.getOpenMergeRequests(15L, null, null)
+
+        then:
+        thrown(GitLabApiException)
+    }
+}
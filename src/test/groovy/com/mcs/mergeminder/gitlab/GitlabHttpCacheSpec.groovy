@@ -0,0 +1,84 @@
+package com.mcs.mergeminder.gitlab
+
+import com.mcs.mergeminder.properties.CircuitBreakerProperties
+import com.mcs.mergeminder.properties.GitlabProperties
+import com.mcs.mergeminder.util.CircuitBreaker
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.springframework.boot.test.web.client.MockServerRestTemplateCustomizer
+import org.springframework.boot.web.client.RestTemplateBuilder
+import org.springframework.http.HttpHeaders
+import org.springframework.http.HttpStatus
+import org.springframework.http.MediaType
+import spock.lang.Specification
+
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess
+
+class GitlabHttpCacheSpec extends Specification {
+
+    static final String NOTES_URL = 'https://gitlab.example.com/api/v4/projects/15/merge_requests/1/notes?sort=desc&order_by=created_at&page=1&per_page=20'
+    static final String NOTES = '[{"id": 500, "body": "assigned to @jsmith", "system": true, "created_at": "2024-10-01T09:05:00.000Z"}]'
+
+    def gitlabProperties = new GitlabProperties(url: 'https://gitlab.example.com', accesstoken: 'token', httpCacheMaxEntries: 10)
+    def httpCache = new GitlabHttpCache(gitlabProperties)
+    def customizer = new MockServerRestTemplateCustomizer()
+    def client = new GitlabRestClient(gitlabProperties, new RestTemplateBuilder(customizer), httpCache,
+            new GitlabRateLimiter(gitlabProperties, new CircuitBreaker('gitlab', new CircuitBreakerProperties(), new SimpleMeterRegistry())))
+
+    def 'unchanged notes are revalidated with their ETag and served from the cache'() {
+        given:
+        def etag = new HttpHeaders()
+        etag.setETag('"abc"')
+        customizer.server.expect(requestTo(NOTES_URL))
+            .andRespond(withSuccess(NOTES, MediaType.APPLICATION_JSON).headers(etag))
+        customizer.server.expect(requestTo(NOTES_URL))
+            .andExpect(header('If-None-Match', '"abc"'))
+            .andRespond(withStatus(HttpStatus.NOT_MODIFIED).headers(etag))
+
+        when:
+        def first = client.getMergeRequestNotes(15L, 1L, 1, 20)
+        def second = client.getMergeRequestNotes(15L, 1L, 1, 20)
+
+        then:
+        customizer.server.verify()
+        first*.id == [500L]
+        second*.id == [500L]
+        second[0].createdAt == first[0].createdAt
+        httpCache.hits == 1
+        httpCache.misses == 1
+        httpCache.bytesSaved == NOTES.bytes.length
+        httpCache.hitRatio == 0.5d
+    }
+
+    def 'responses without an ETag are not cached'() {
+        given:
+        2.times {
+            customizer.server.expect(requestTo(NOTES_URL))
+                .andExpect({ request -> assert !request.headers.containsKey('If-None-Match') })
+                .andRespond(withSuccess(NOTES, MediaType.APPLICATION_JSON))
+        }
+
+        when:
+        2.times { client.getMergeRequestNotes(15L, 1L, 1, 20) }
+
+        then:
+        customizer.server.verify()
+        httpCache.size() == 0
+        httpCache.hits == 0
+    }
+
+    def 'open MRs are listed by iid with the project path encoded'() {
+        given:
+        customizer.server.expect(requestTo('https://gitlab.example.com/api/v4/projects/frontend%2Fui/merge_requests?state=opened&per_page=3&iids%5B%5D=1&iids%5B%5D=2&iids%5B%5D=3'))
+            .andRespond(withSuccess('[{"id": 901, "iid": 2, "state": "opened"}]', MediaType.APPLICATION_JSON))
+
+        when:
+        def openIids = client.getOpenMergeRequestIids('frontend/ui', [1L, 2L, 3L])
+
+        then:
+        customizer.server.verify()
+        openIids == [2L]
+    }
+}
@@ -1,6 +1,9 @@
 package com.mcs.mergeminder.gitlab
 
+import com.mcs.mergeminder.properties.CircuitBreakerProperties
 import com.mcs.mergeminder.properties.GitlabProperties
+import com.mcs.mergeminder.util.CircuitBreaker
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
 import org.gitlab4j.api.models.MergeRequest
 import spock.lang.Specification
 import spock.lang.Unroll
@@ -13,7 +16,10 @@ class GitlabIntegrationSpec extends Specification {
         GitlabProperties gitlabProperties = Mock(GitlabProperties) {
             getIgnoredByLabels() >> ignoredByLabels
         }
-        def gitlabIntegration = new GitlabIntegration(gitlabProperties)
+        def gitlabIntegration = new GitlabIntegration(gitlabProperties, new GitlabUserCache(gitlabProperties),
+                new AssignmentNoteScanner(gitlabProperties, Mock(GitlabRestClient), new SimpleMeterRegistry()), Mock(GitlabGraphqlClient),
+                new GitlabRateLimiter(gitlabProperties, new CircuitBreaker('gitlab', new CircuitBreakerProperties(), new SimpleMeterRegistry())),
+                Mock(GitlabRestClient), new MergeRequestFilterEngine(gitlabProperties))
         def mr = new MergeRequest(
                 labels: mergeRequestLabels
         )
@@ -34,4 +40,24 @@ class GitlabIntegrationSpec extends Specification {
         ['1', '5', 's ']  | [' 10', ' s', '99']          | true             | 'merge request has multiple labels and there are multiple configured ignoredByLabels - ignored'
         ['1', '5', 's ']  | [' 10', '22', '99']          | false            | 'merge request has multiple labels and there are multiple configured ignoredByLabels - not ignored'
     }
+
+    def 'merged or closed MRs are found by listing the open ones in batches'() {
+        given:
+        def gitlabProperties = new GitlabProperties(mergeRequestsPageSize: 2)
+        def restClient = Mock(GitlabRestClient)
+        def gitlabIntegration = new GitlabIntegration(gitlabProperties, new GitlabUserCache(gitlabProperties),
+                new AssignmentNoteScanner(gitlabProperties, restClient, new SimpleMeterRegistry()), Mock(GitlabGraphqlClient),
+                new GitlabRateLimiter(gitlabProperties, new CircuitBreaker('gitlab', new CircuitBreakerProperties(), new SimpleMeterRegistry())),
+                restClient, new MergeRequestFilterEngine(gitlabProperties))
+
+        when:
+        def check = gitlabIntegration.findMergedOrClosed('frontend/ui', [1L, 2L, 3L, 4L, 5L])
+
+        then:
+        1 * restClient.getOpenMergeRequestIids('frontend/ui', [1L, 2L]) >> [2L]
+        1 * restClient.getOpenMergeRequestIids('frontend/ui', [3L, 4L]) >> []
+        1 * restClient.getOpenMergeRequestIids('frontend/ui', [5L]) >> [5L]
+        check.mergedOrClosedIids == [1L, 3L, 4L] as Set
+        check.requests == 3
+    }
 }
@@ -0,0 +1,154 @@
+package com.mcs.mergeminder.gitlab
+
+import com.mcs.mergeminder.exception.CallNotPermittedException
+import com.mcs.mergeminder.properties.CircuitBreakerProperties
+import com.mcs.mergeminder.properties.GitlabProperties
+import com.mcs.mergeminder.util.CircuitBreaker
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.springframework.boot.test.web.client.MockServerRestTemplateCustomizer
+import org.springframework.boot.web.client.RestTemplateBuilder
+import org.springframework.http.HttpHeaders
+import org.springframework.http.HttpStatus
+import org.springframework.http.MediaType
+import org.springframework.web.client.HttpServerErrorException
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess
+
+class GitlabRateLimiterSpec extends Specification {
+
+    def gitlabProperties = new GitlabProperties(maxRequestsPerSecond: 10, maxRetries: 2, retryBackoffMillis: 10)
+    def rateLimiter = new GitlabRateLimiter(gitlabProperties, new CircuitBreaker('gitlab', new CircuitBreakerProperties(), new SimpleMeterRegistry()))
+
+    def 'rate spreads the remaining requests until the window resets, capped at the configured maximum'() {
+        when:
+        rateLimiter.update(rateLimitHeaders(remaining, 100))
+
+        then:
+        Math.abs(rateLimiter.rate - expectedRate) < 0.1
+
+        where:
+        remaining | expectedRate
+        300       | 3
+        5000      | 10
+    }
+
+    def 'peak of concurrent requests is kept until taken'() {
+        given:
+        def started = new CountDownLatch(3)
+        def release = new CountDownLatch(1)
+        def threads = (1..3).collect {
+            Thread.start { rateLimiter.call({ started.countDown(); release.await(5, TimeUnit.SECONDS); 'done' } as GitlabRateLimiter.GitlabCall) }
+        }
+
+        when:
+        started.await(5, TimeUnit.SECONDS)
+        def activeWhileRunning = rateLimiter.activeRequests
+        release.countDown()
+        threads*.join(5000)
+
+        then:
+        activeWhileRunning == 3
+        rateLimiter.activeRequests == 0
+        rateLimiter.takePeakActiveRequests() == 3
+        rateLimiter.takePeakActiveRequests() == 0
+    }
+
+    def 'throttled requests are retried'() {
+        given:
+        def customizer = new MockServerRestTemplateCustomizer()
+        def restTemplate = new RestTemplateBuilder(customizer).additionalInterceptors(rateLimiter).build()
+        customizer.server.expect(requestTo('https://gitlab.example.com/api/v4/version'))
+            .andRespond(withStatus(HttpStatus.TOO_MANY_REQUESTS))
+        customizer.server.expect(requestTo('https://gitlab.example.com/api/v4/version'))
+            .andRespond(withSuccess('{"version": "17.0.0"}', MediaType.APPLICATION_JSON).headers(rateLimitHeaders(599, 60)))
+
+        when:
+        def version = restTemplate.getForObject('https://gitlab.example.com/api/v4/version', String)
+
+        then:
+        customizer.server.verify()
+        version.contains('17.0.0')
+        rateLimiter.retries == 1
+    }
+
+    def 'throttled requests are backed off without opening the circuit'() {
+        given:
+        def circuitBreaker = new CircuitBreaker('gitlab', new CircuitBreakerProperties(failureThreshold: 1, openSeconds: 60), new SimpleMeterRegistry())
+        def customizer = new MockServerRestTemplateCustomizer()
+        def restTemplate = new RestTemplateBuilder(customizer).additionalInterceptors(new GitlabRateLimiter(gitlabProperties, circuitBreaker)).build()
+        customizer.server.expect(requestTo('https://gitlab.example.com/api/v4/version'))
+            .andRespond(withStatus(HttpStatus.TOO_MANY_REQUESTS))
+        customizer.server.expect(requestTo('https://gitlab.example.com/api/v4/version'))
+            .andRespond(withSuccess('{"version": "17.0.0"}', MediaType.APPLICATION_JSON))
+
+        when:
+        def version = restTemplate.getForObject('https://gitlab.example.com/api/v4/version', String)
+
+        then:
+        customizer.server.verify()
+        version.contains('17.0.0')
+        !circuitBreaker.open
+    }
+
+    def 'calls wait for a full bulkhead instead of being rejected'() {
+        given:
+        def circuitBreaker = new CircuitBreaker('gitlab', new CircuitBreakerProperties(maxConcurrentCalls: 1, maxWaitMillis: 5000), new SimpleMeterRegistry())
+        def limiter = new GitlabRateLimiter(gitlabProperties, circuitBreaker)
+        def started = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def first = Thread.start { limiter.call({ started.countDown(); release.await(5, TimeUnit.SECONDS); 'first' } as GitlabRateLimiter.GitlabCall) }
+        started.await(5, TimeUnit.SECONDS)
+        def second = null
+        def waiting = Thread.start { second = limiter.call({ 'second' } as GitlabRateLimiter.GitlabCall) }
+
+        when:
+        Thread.sleep(100)
+        release.countDown()
+        [first, waiting]*.join(5000)
+
+        then:
+        second == 'second'
+        circuitBreaker.rejected == 0
+        circuitBreaker.activeCalls == 0
+    }
+
+    def 'circuit opens after consecutive outages and rejects calls without making them'() {
+        given:
+        def circuitBreaker = new CircuitBreaker('gitlab', new CircuitBreakerProperties(failureThreshold: 3, openSeconds: 60), new SimpleMeterRegistry())
+        def customizer = new MockServerRestTemplateCustomizer()
+        def restTemplate = new RestTemplateBuilder(customizer).additionalInterceptors(new GitlabRateLimiter(gitlabProperties, circuitBreaker)).build()
+        3.times {
+            customizer.server.expect(requestTo('https://gitlab.example.com/api/v4/version'))
+                .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE))
+        }
+
+        when:
+        restTemplate.getForObject('https://gitlab.example.com/api/v4/version', String)
+
+        then:
+        thrown(HttpServerErrorException)
+        customizer.server.verify()
+        circuitBreaker.open
+
+        when:
+        restTemplate.getForObject('https://gitlab.example.com/api/v4/version', String)
+
+        then:
+        thrown(CallNotPermittedException)
+        circuitBreaker.rejected == 1
+        circuitBreaker.activeCalls == 0
+    }
+
+    private static HttpHeaders rateLimitHeaders(long remaining, long secondsToReset) {
+        def headers = new HttpHeaders()
+        headers.add(GitlabRateLimiter.RATE_LIMIT_REMAINING, remaining as String)
+        headers.add(GitlabRateLimiter.RATE_LIMIT_RESET, (System.currentTimeMillis().intdiv(1000) + secondsToReset) as String)
+        headers
+    }
+}
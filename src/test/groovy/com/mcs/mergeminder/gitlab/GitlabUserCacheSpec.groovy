@@ -0,0 +1,55 @@
+package com.mcs.mergeminder.gitlab
+
+import com.mcs.mergeminder.properties.GitlabProperties
+import org.gitlab4j.api.models.User
+import spock.lang.Specification
+
+class GitlabUserCacheSpec extends Specification {
+
+    def gitlabProperties = new GitlabProperties(userCacheTtlMinutes: 60, userCacheMaxSize: 2)
+    def userCache = new GitlabUserCache(gitlabProperties)
+
+    def 'user is only loaded once and is then served by username and id'() {
+        given:
+        def loads = 0
+        def loader = { loads++; new User(id: 1L, username: 'jdoe') } as GitlabUserCache.UserLoader
+
+        when:
+        def first = userCache.getUser('jdoe', loader)
+        def second = userCache.getUser('jdoe', loader)
+        def byId = userCache.getUser(1L, loader)
+
+        then:
+        loads == 1
+        first.is(second)
+        first.is(byId)
+        userCache.misses == 1
+        userCache.hits == 2
+    }
+
+    def 'expired users are loaded again'() {
+        given:
+        def expiringCache = new GitlabUserCache(new GitlabProperties(userCacheTtlMinutes: 0, userCacheMaxSize: 10))
+        def loads = 0
+        def loader = { loads++; new User(id: 1L, username: 'jdoe') } as GitlabUserCache.UserLoader
+
+        when:
+        expiringCache.getUser('jdoe', loader)
+        sleep(5)
+        expiringCache.getUser('jdoe', loader)
+
+        then:
+        loads == 2
+    }
+
+    def 'least recently used user is evicted when the cache is full'() {
+        when:
+        ['a', 'b', 'c'].eachWithIndex { name, i ->
+            userCache.getUser(name, { new User(id: i as Long, username: name) } as GitlabUserCache.UserLoader)
+        }
+
+        then:
+        userCache.size() == 2
+        userCache.getUser('a', { new User(id: 99L, username: 'a') } as GitlabUserCache.UserLoader).id == 99L
+    }
+}
@@ -0,0 +1,76 @@
+package com.mcs.mergeminder.gitlab
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.mcs.mergeminder.MergeMinder
+import com.mcs.mergeminder.dao.MergeMinderDb
+import com.mcs.mergeminder.dto.MergeRequestModel
+import com.mcs.mergeminder.dto.MinderProjectsModel
+import com.mcs.mergeminder.properties.GitlabProperties
+import com.mcs.mergeminder.properties.MergeMinderProperties
+import com.mcs.mergeminder.util.TimeSchedule
+import spock.lang.Specification
+
+import java.time.Instant
+
+class GitlabWebhookHandlerSpec extends Specification {
+
+    def mergeMinder = Mock(MergeMinder)
+    def mergeMinderDb = Mock(MergeMinderDb)
+    def timeSchedule = Mock(TimeSchedule)
+    def userCache = new GitlabUserCache(new GitlabProperties(userCacheTtlMinutes: 60, userCacheMaxSize: 10))
+    def handler = new GitlabWebhookHandler(mergeMinder, mergeMinderDb, userCache, new MergeRequestFilterEngine(new GitlabProperties()), timeSchedule, new MergeMinderProperties(scheduleBypass: false))
+    def minderProject = new MinderProjectsModel(namespace: 'acme', project: 'widgets', gitlabProjectId: 15L)
+
+    def 'reassigning an MR minds the new assignee from the event alone'() {
+        given:
+        def event = loadEvent('merge-request-reassigned.json')
+        mergeMinderDb.getMinderProject(15L, 'acme/widgets') >> minderProject
+        timeSchedule.shouldAlertNow() >> true
+
+        when:
+        handler.handleEvent(GitlabWebhookHandler.MERGE_REQUEST_EVENT, event)
+
+        then:
+        1 * mergeMinder.mindAssignments(minderProject, { infos ->
+            infos.size() == 1 &&
+                infos[0].assignee.username == 'jsmith' &&
+                infos[0].assignee.email == null &&
+                infos[0].author.username == 'jdoe' &&
+                infos[0].lastAssignmentId == -1L &&
+                infos[0].assignedAt == Date.from(Instant.parse('2024-10-02T10:30:00Z'))
+        })
+    }
+
+    def 'merged MRs are no longer minded'() {
+        given:
+        def event = loadEvent('merge-request-reassigned.json')
+        event.path('object_attributes').put('state', 'merged')
+        def mrModel = new MergeRequestModel(id: 99L)
+        mergeMinderDb.getMinderProject(15L, 'acme/widgets') >> minderProject
+        mergeMinderDb.getMergeRequestModel(99L) >> mrModel
+
+        when:
+        handler.handleEvent(GitlabWebhookHandler.MERGE_REQUEST_EVENT, event)
+
+        then:
+        1 * mergeMinderDb.removeMergeRequestModel(mrModel)
+        0 * mergeMinder.mindAssignments(_, _)
+    }
+
+    def 'events outside of alert hours are left for the minding run'() {
+        given:
+        def event = loadEvent('merge-request-reassigned.json')
+        mergeMinderDb.getMinderProject(15L, 'acme/widgets') >> minderProject
+        timeSchedule.shouldAlertNow() >> false
+
+        when:
+        handler.handleEvent(GitlabWebhookHandler.MERGE_REQUEST_EVENT, event)
+
+        then:
+        0 * mergeMinder.mindAssignments(_, _)
+    }
+
+    private static loadEvent(String name) {
+        new ObjectMapper().readTree(GitlabWebhookHandlerSpec.getResourceAsStream("/webhooks/${name}"))
+    }
+}
@@ -0,0 +1,44 @@
+package com.mcs.mergeminder.gitlab
+
+import com.mcs.mergeminder.properties.GitlabProperties
+import org.gitlab4j.api.models.Author
+import org.gitlab4j.api.models.MergeRequest
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class MergeRequestFilterEngineSpec extends Specification {
+
+    def filterEngine = new MergeRequestFilterEngine(new GitlabProperties(ignoredByLabels: [' Do-Not-Merge '], targetBranches: ['main'],
+            ignoredAuthors: ['Renovate-Bot']))
+
+    @Unroll
+    def 'MR is excluded by rule #expectedRule when: #scenario'() {
+        given:
+        def mr = new MergeRequest(labels: labels, workInProgress: draft, targetBranch: targetBranch, author: new Author(username: author))
+
+        expect:
+        filterEngine.exclude(mr) == expectedRule
+
+        where:
+        labels            | draft | targetBranch | author         | expectedRule                                | scenario
+        ['feature']       | false | 'main'       | 'jsmith'       | null                                        | 'nothing matches'
+        ['do-not-merge']  | true  | 'release'    | 'renovate-bot' | MergeRequestFilterEngine.Rule.LABEL         | 'labels are checked first, trimmed and ignoring case'
+        []                | true  | 'main'       | 'jsmith'       | MergeRequestFilterEngine.Rule.DRAFT         | 'MR is a draft'
+        null              | false | 'release'    | 'jsmith'       | MergeRequestFilterEngine.Rule.TARGET_BRANCH | 'MR targets a branch that is not minded'
+        []                | false | 'main'       | 'renovate-bot' | MergeRequestFilterEngine.Rule.AUTHOR        | 'MR was opened by an ignored author'
+    }
+
+    def 'exclusions are counted per rule and drafts and the single target branch are pushed down'() {
+        when:
+        filterEngine.exclude(new MergeRequest(workInProgress: true, targetBranch: 'main'))
+        filterEngine.exclude(new MergeRequest(workInProgress: false, targetBranch: 'release'))
+        filterEngine.exclude(new MergeRequest(workInProgress: false, targetBranch: 'main'))
+
+        then:
+        filterEngine.getExcluded(MergeRequestFilterEngine.Rule.DRAFT) == 1
+        filterEngine.getExcluded(MergeRequestFilterEngine.Rule.TARGET_BRANCH) == 1
+        filterEngine.getExcluded(MergeRequestFilterEngine.Rule.LABEL) == 0
+        filterEngine.draftArgument == false
+        filterEngine.targetBranchesArgument == ['main']
+    }
+}
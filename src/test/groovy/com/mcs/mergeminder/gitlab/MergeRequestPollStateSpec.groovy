@@ -0,0 +1,71 @@
+package com.mcs.mergeminder.gitlab
+
+import com.mcs.mergeminder.dto.MergeRequestAssignmentInfo
+import org.gitlab4j.api.models.MergeRequest
+import spock.lang.Specification
+
+import java.time.Instant
+
+class MergeRequestPollStateSpec extends Specification {
+
+    def pollState = new MergeRequestPollState()
+
+    def 'a failed MR holds the high-water mark back so the next poll lists it again'() {
+        given: 'a first poll that saw the MR'
+        def known = assignments(2L)
+        pollState.update(mr(2L, '2024-10-01T10:00:00Z'), known)
+        pollState.pollComplete(true)
+
+        when: 'the MR changed but could not be looked up, while a newer MR could'
+        pollState.update(mr(1L, '2024-10-02T09:00:00Z'), assignments(1L))
+        pollState.failed(mr(2L, '2024-10-02T08:00:00Z'))
+        pollState.update(mr(3L, '2024-10-02T10:00:00Z'), assignments(3L))
+        pollState.pollComplete(false)
+
+        then: 'the mark sits just before the failed MR and its previous assignments are kept'
+        pollState.highWaterMark == Date.from(Instant.parse('2024-10-02T08:00:00Z').minusMillis(1))
+        pollState.openMergeRequestCount == 3
+        pollState.assignmentInfo.containsAll(known)
+    }
+
+    def 'a clean poll after a failed one moves the high-water mark forward again'() {
+        given:
+        pollState.update(mr(1L, '2024-10-02T09:00:00Z'), assignments(1L))
+        pollState.failed(mr(2L, '2024-10-02T08:00:00Z'))
+        pollState.pollComplete(false)
+
+        when:
+        pollState.update(mr(2L, '2024-10-02T08:00:00Z'), assignments(2L))
+        pollState.update(mr(1L, '2024-10-02T11:00:00Z'), assignments(1L))
+        pollState.pollComplete(false)
+
+        then:
+        pollState.highWaterMark == Date.from(Instant.parse('2024-10-02T11:00:00Z'))
+        pollState.pollsSinceFullRefresh == 2
+    }
+
+    def 'a full refresh starts from a clean state'() {
+        given:
+        pollState.update(mr(1L, '2024-10-02T09:00:00Z'), assignments(1L))
+        pollState.failed(mr(2L, '2024-10-02T08:00:00Z'))
+        pollState.pollComplete(false)
+
+        when:
+        pollState.clear()
+        pollState.update(mr(3L, '2024-10-02T12:00:00Z'), assignments(3L))
+        pollState.pollComplete(true)
+
+        then: 'nothing from before the refresh is left, the failure included'
+        pollState.highWaterMark == Date.from(Instant.parse('2024-10-02T12:00:00Z'))
+        pollState.openMergeRequestCount == 1
+        pollState.pollsSinceFullRefresh == 0
+    }
+
+    private static MergeRequest mr(Long iid, String updatedAt) {
+        new MergeRequest(iid: iid, updatedAt: Date.from(Instant.parse(updatedAt)))
+    }
+
+    private static List<MergeRequestAssignmentInfo> assignments(Long iid) {
+        [new MergeRequestAssignmentInfo(new MergeRequest(iid: iid), null, null, null, 'acme', 'widgets')]
+    }
+}
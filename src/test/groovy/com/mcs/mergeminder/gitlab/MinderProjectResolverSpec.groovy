@@ -0,0 +1,60 @@
+package com.mcs.mergeminder.gitlab
+
+import com.mcs.mergeminder.dao.MergeMinderDb
+import com.mcs.mergeminder.dto.MergeRequestAssignmentInfo
+import com.mcs.mergeminder.dto.MinderProjectsModel
+import org.gitlab4j.api.GitLabApiException
+import org.gitlab4j.api.models.MergeRequest
+import org.gitlab4j.api.models.References
+import spock.lang.Specification
+
+class MinderProjectResolverSpec extends Specification {
+
+    def gitlabIntegration = Mock(GitlabIntegration)
+    def mergeMinderDb = Mock(MergeMinderDb)
+    def resolver = new MinderProjectResolver(gitlabIntegration, mergeMinderDb)
+
+    def 'a project id GitLab no longer knows is resolved again and saved'() {
+        given:
+        def minderProject = new MinderProjectsModel(namespace: 'acme', project: 'widgets', gitlabProjectId: 15L)
+
+        when:
+        def projectId = resolver.resolveProjectId(minderProject)
+
+        then:
+        1 * gitlabIntegration.resolveProjectId('acme', 'widgets') >> 27L
+        1 * gitlabIntegration.forgetProject(15L)
+        1 * mergeMinderDb.saveMinderProject({ it.gitlabProjectId == 27L })
+        projectId == 27L
+    }
+
+    def 'a project GitLab cannot find is a 404 and the stored id is kept'() {
+        given:
+        def minderProject = new MinderProjectsModel(namespace: 'acme', project: 'widgets', gitlabProjectId: 15L)
+        gitlabIntegration.resolveProjectId('acme', 'widgets') >> null
+
+        when:
+        resolver.resolveProjectId(minderProject)
+
+        then:
+        def e = thrown(GitLabApiException)
+        e.httpStatus == 404
+        0 * mergeMinderDb.saveMinderProject(_)
+        minderProject.gitlabProjectId == 15L
+    }
+
+    def 'a moved project gets the path of its MRs'() {
+        given:
+        def minderProject = new MinderProjectsModel(namespace: 'acme', project: 'widgets', gitlabProjectId: 15L)
+        def mr = new MergeRequest(references: new References(full: 'acme/tools/gadgets!12'))
+
+        when:
+        resolver.updateProjectPath(minderProject, [new MergeRequestAssignmentInfo(mr, null, null, null, 'acme', 'widgets')])
+
+        then:
+        1 * mergeMinderDb.saveMinderProject(minderProject)
+        1 * gitlabIntegration.forgetProject(15L)
+        minderProject.namespace == 'acme/tools'
+        minderProject.project == 'gadgets'
+    }
+}
@@ -0,0 +1,42 @@
+package com.mcs.mergeminder.util
+
+import com.mcs.mergeminder.properties.PipelineStageProperties
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class PipelineStageSpec extends Specification {
+
+    def 'submitting waits while the stage is full and continues once room frees up'() {
+        given:
+        def meterRegistry = new SimpleMeterRegistry()
+        def stage = new PipelineStage('test', new PipelineStageProperties(1, 1), meterRegistry)
+        def release = new CountDownLatch(1)
+        def started = new CountDownLatch(1)
+        stage.submit({ started.countDown(); release.await(5, TimeUnit.SECONDS) })
+        started.await(5, TimeUnit.SECONDS)
+        stage.submit({})
+        def thirdSubmitted = new CountDownLatch(1)
+
+        when:
+        def feeder = Thread.start { stage.submit({}); thirdSubmitted.countDown() }
+
+        then: 'the third item waits for room'
+        !thirdSubmitted.await(200, TimeUnit.MILLISECONDS)
+        stage.active == 1
+        stage.queued == 1
+        meterRegistry.get('mergeminder.pipeline.queue').tag('stage', 'test').gauge().value() == 1
+
+        when:
+        release.countDown()
+        feeder.join(5000)
+
+        then:
+        thirdSubmitted.await(5, TimeUnit.SECONDS)
+
+        cleanup:
+        stage.shutdown()
+    }
+}
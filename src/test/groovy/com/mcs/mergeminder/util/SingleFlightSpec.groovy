@@ -0,0 +1,58 @@
+package com.mcs.mergeminder.util
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class SingleFlightSpec extends Specification {
+
+    def 'triggers that arrive during a run are folded into a single follow-up run'() {
+        given:
+        def started = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def taskRuns = new AtomicInteger()
+        def singleFlight = new SingleFlight('test', {
+            if (taskRuns.incrementAndGet() == 1) {
+                started.countDown()
+                release.await(5, TimeUnit.SECONDS)
+            }
+        }, new SimpleMeterRegistry())
+        def first = Thread.start { singleFlight.trigger() }
+        started.await(5, TimeUnit.SECONDS)
+
+        when:
+        def folded = (1..3).collect { singleFlight.trigger() }
+        release.countDown()
+        first.join(5000)
+
+        then:
+        folded == [false, false, false]
+        taskRuns.get() == 2
+        singleFlight.runs == 2
+        singleFlight.coalesced == 3
+        !singleFlight.running
+        !singleFlight.lastFinishedAt.isBefore(singleFlight.lastStartedAt)
+    }
+
+    def 'a failed run does not block the next trigger'() {
+        given:
+        def singleFlight = new SingleFlight('test', { throw new IllegalStateException('boom') }, new SimpleMeterRegistry())
+
+        when:
+        singleFlight.trigger()
+
+        then:
+        thrown(IllegalStateException)
+        !singleFlight.running
+
+        when:
+        singleFlight.trigger()
+
+        then:
+        thrown(IllegalStateException)
+        singleFlight.runs == 2
+    }
+}